@@ -5,6 +5,9 @@ import file_system.command.CommandInvoker;
 import file_system.command.ExitCommand;
 import file_system.command.FileSystemCommand;
 import file_system.manager.FileSystem;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 public class Main {
@@ -21,7 +24,11 @@ public class Main {
         System.out.println("3. read <path> - Read content from a file");
         System.out.println("4. delete <path> - Delete a path");
         System.out.println("5. display - Show the entire file system structure");
-        System.out.println("6. exit - Exit the program");
+        System.out.println("6. batch <script> - Run the commands in a script file, one per line");
+        System.out.println("7. undo [checkpoint] - Undo the last change, or every change after a checkpoint");
+        System.out.println("8. redo - Redo the last undone change");
+        System.out.println("9. checkpoint <name> - Name the current state for undo");
+        System.out.println("10. exit - Exit the program");
 
         while (isRunning) {
             System.out.print("\nEnter command: ");
@@ -34,13 +41,43 @@ public class Main {
             String commandName = parts[0].toLowerCase();
 
             try {
+                if (commandName.equals("batch")) {
+                    if (parts.length >= 2) {
+                        invoker.executeBatch(factory.parseScript(Files.readAllLines(Paths.get(parts[1]))));
+                    } else {
+                        System.out.println("Usage: batch <script>");
+                    }
+                    continue;
+                }
+
+                if (commandName.equals("undo")) {
+                    boolean isUndone = parts.length >= 2 ? invoker.undoTo(parts[1]) : invoker.undo();
+                    System.out.println(isUndone ? "Undone successfully" : "Nothing to undo");
+                    continue;
+                }
+
+                if (commandName.equals("redo")) {
+                    System.out.println(invoker.redo() ? "Redone successfully" : "Nothing to redo");
+                    continue;
+                }
+
+                if (commandName.equals("checkpoint")) {
+                    if (parts.length >= 2) {
+                        invoker.checkpoint(parts[1]);
+                        System.out.println("Checkpoint " + parts[1] + " saved");
+                    } else {
+                        System.out.println("Usage: checkpoint <name>");
+                    }
+                    continue;
+                }
+
                 FileSystemCommand command = factory.createCommand(commandName, parts);
 
                 if (command == null) {
                     if (!commandName.equals("create") && !commandName.equals("write") &&
                             !commandName.equals("read") && !commandName.equals("delete")) {
                         System.out.println(
-                                "Unknown command. Available commands: create, write, read, delete, display, exit");
+                                "Unknown command. Available commands: create, write, read, delete, display, batch, undo, redo, checkpoint, exit");
                     }
                     continue;
                 }
@@ -57,5 +94,10 @@ public class Main {
         }
 
         scanner.close();
+        try {
+            invoker.close();
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
     }
 }
@@ -0,0 +1,134 @@
+package file_system.benchmark;
+
+import file_system.manager.FileSystem;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hammers one FileSystem from many threads with mixed create/read/write/delete.
+// Each thread also owns a private subtree where every result is predictable, so a
+// lost update or a stale cache entry shows up as a failed expectation.
+// Usage: java file_system.benchmark.ConcurrentFileSystemStress [threads] [opsPerThread]
+public class ConcurrentFileSystemStress {
+    private static final int SHARED_DIRS = 4;
+    private static final int SHARED_FILES = 8;
+
+    private final FileSystem fileSystem = new FileSystem();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong operations = new AtomicLong();
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        ConcurrentFileSystemStress stress = new ConcurrentFileSystemStress();
+        long start = System.nanoTime();
+        stress.run(threads, opsPerThread);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        stress.verifySharedTree();
+
+        System.out.println("Threads: " + threads + ", operations: " + stress.operations.get()
+                + ", elapsed: " + elapsedMillis + " ms");
+        System.out.println("Path cache: " + stress.fileSystem.getPathCache());
+        if (stress.failures.get() > 0) {
+            System.out.println("FAILED: " + stress.failures.get() + " unexpected results");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    private void run(int threads, int opsPerThread) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < opsPerThread; i++) {
+                        if ((i & 1) == 0)
+                            privateStep(id, i);
+                        else
+                            sharedStep(id, i);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    fail("thread " + id + " threw " + e);
+                }
+            }, "stress-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    // Nobody else touches /private/<id>, so every call has exactly one right answer
+    private void privateStep(int id, int i) {
+        String dir = "/private/" + id + "/d" + (i % 16);
+        String file = dir + "/data.txt";
+        String content = id + ":" + i;
+        expect(fileSystem.createPath(file), "create " + file);
+        expect(!fileSystem.createPath(file), "re-create " + file);
+        expect(fileSystem.setFileContent(file, content), "write " + file);
+        expect(content.equals(fileSystem.getFileContent(file)), "read back " + file);
+        expect(fileSystem.deletePath(dir), "delete " + dir);
+        expect(fileSystem.getFileContent(file) == null, "read after delete " + file);
+        operations.addAndGet(6);
+    }
+
+    // Contended subtree: outcomes depend on interleaving, only their shape is checked
+    private void sharedStep(int id, int i) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String dir = "/shared/d" + random.nextInt(SHARED_DIRS);
+        String file = dir + "/f" + random.nextInt(SHARED_FILES) + ".txt";
+        switch (random.nextInt(10)) {
+            case 0:
+                fileSystem.deletePath(dir);
+                break;
+            case 1:
+            case 2:
+                fileSystem.deletePath(file);
+                break;
+            case 3:
+            case 4:
+                fileSystem.createPath(file);
+                break;
+            case 5:
+            case 6:
+                fileSystem.setFileContent(file, id + ":" + i);
+                break;
+            default:
+                String content = fileSystem.getFileContent(file);
+                expect(content == null || content.indexOf(':') > 0, "torn read " + file + " = " + content);
+        }
+        operations.incrementAndGet();
+    }
+
+    // Once quiet, a path that reads as present must also delete, and must be gone after
+    private void verifySharedTree() {
+        for (int d = 0; d < SHARED_DIRS; d++) {
+            for (int f = 0; f < SHARED_FILES; f++) {
+                String file = "/shared/d" + d + "/f" + f + ".txt";
+                if (fileSystem.getFileContent(file) != null)
+                    expect(fileSystem.deletePath(file), "stale entry for " + file);
+                expect(fileSystem.getFileContent(file) == null, "still readable " + file);
+            }
+        }
+    }
+
+    private void expect(boolean condition, String what) {
+        if (!condition)
+            fail(what);
+    }
+
+    private void fail(String what) {
+        // Print only the first few; the total is reported at the end
+        if (failures.incrementAndGet() <= 10)
+            System.out.println("Unexpected: " + what);
+    }
+}
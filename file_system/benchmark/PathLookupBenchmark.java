@@ -0,0 +1,70 @@
+package file_system.benchmark;
+
+import file_system.manager.FileSystem;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Path resolution on deep trees. Run with "-prof gc" to check that a lookup allocates nothing.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathLookupBenchmark {
+    private static final int LOOKUPS_PER_BATCH = 10_000_000;
+
+    @Param({ "50", "100" })
+    private int depth;
+
+    private FileSystem fileSystem;
+    private String filePath;
+    private String missingPath;
+
+    @Setup
+    public void setup() {
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            path.append("/dir").append(i);
+        }
+        String directory = path.toString();
+        filePath = directory + "/data.txt";
+        missingPath = directory + "/missing.txt";
+        fileSystem = new FileSystem();
+        fileSystem.createPath(filePath);
+        fileSystem.setFileContent(filePath, "payload");
+    }
+
+    @Benchmark
+    public String readDeepFile() {
+        return fileSystem.getFileContent(filePath);
+    }
+
+    @Benchmark
+    public String readMissingFile() {
+        return fileSystem.getFileContent(missingPath);
+    }
+
+    // 10M lookups in one invocation; the score is reported per lookup
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 3)
+    @OperationsPerInvocation(LOOKUPS_PER_BATCH)
+    public void tenMillionLookups(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS_PER_BATCH; i++) {
+            blackhole.consume(fileSystem.getFileContent(filePath));
+        }
+    }
+}
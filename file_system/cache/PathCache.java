@@ -0,0 +1,149 @@
+package file_system.cache;
+
+import file_system.node.Node;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded cache from full path to Node, so repeated reads of deep paths skip the tree walk.
+//
+// Lookups are a single hash map read. Paths are also kept in sorted order, which makes
+// invalidating a whole subtree a range removal: deleting "/a/b" drops "/a/b" and every
+// key in ["/a/b/", "/a/b0"), i.e. everything below it.
+//
+// Eviction is CLOCK (an LRU approximation): a hit only sets a flag, and when the cache
+// is over capacity a hand sweeps the sorted keys, clearing flags and evicting the first
+// entry that hasn't been used since the last sweep.
+public class PathCache {
+    private static final class Entry {
+        final Node node;
+        volatile boolean referenced;
+
+        Entry(Node node) {
+            this.node = node;
+        }
+    }
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<String> sortedPaths = new ConcurrentSkipListSet<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private String clockHand;
+
+    public PathCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public Node get(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (!entry.referenced)
+            entry.referenced = true;
+        return entry.node;
+    }
+
+    public void put(String path, Node node) {
+        if (entries.putIfAbsent(path, new Entry(node)) == null) {
+            sortedPaths.add(path);
+            if (size.incrementAndGet() > capacity)
+                evict();
+        }
+    }
+
+    // Removes path and every cached path below it
+    public void invalidatePrefix(String path) {
+        remove(path);
+        Iterator<String> below = sortedPaths.subSet(path + "/", path + "0").iterator();
+        while (below.hasNext()) {
+            String key = below.next();
+            below.remove();
+            if (entries.remove(key) != null) {
+                size.decrementAndGet();
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        sortedPaths.clear();
+        size.set(0);
+    }
+
+    private void remove(String path) {
+        if (entries.remove(path) != null) {
+            sortedPaths.remove(path);
+            size.decrementAndGet();
+            invalidations.increment();
+        }
+    }
+
+    private synchronized void evict() {
+        while (size.get() > capacity) {
+            String key = clockHand == null ? null : sortedPaths.higher(clockHand);
+            if (key == null)
+                key = sortedPaths.isEmpty() ? null : sortedPaths.first();
+            if (key == null)
+                return;
+            clockHand = key;
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                sortedPaths.remove(key);
+            } else if (entry.referenced) {
+                // Second chance
+                entry.referenced = false;
+            } else if (entries.remove(key, entry)) {
+                sortedPaths.remove(key);
+                size.decrementAndGet();
+                evictions.increment();
+            }
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return "PathCache[size=" + size() + "/" + capacity + ", hits=" + getHitCount() + ", misses="
+                + getMissCount() + ", evictions=" + getEvictionCount() + ", invalidations="
+                + getInvalidationCount() + "]";
+    }
+}
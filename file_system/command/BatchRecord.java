@@ -0,0 +1,67 @@
+package file_system.command;
+
+import java.util.List;
+
+// A whole executeBatch run as one undo step. Records are in the order their commands
+// ran within each subtree, and subtrees never touch each other, so going through the
+// list backwards reverts every subtree in reverse script order.
+//
+// A step that fails part way re-applies what it had already reverted, so the batch is
+// left as a whole where possible, and reports the failure.
+final class BatchRecord implements UndoRecord {
+    private final List<UndoRecord> records;
+    // -1 until the log first asks
+    private long retainedBytes = -1;
+
+    BatchRecord(List<UndoRecord> records) {
+        this.records = records;
+    }
+
+    @Override
+    public boolean undo() {
+        for (int i = records.size() - 1; i >= 0; i--) {
+            if (!records.get(i).undo()) {
+                for (int j = i + 1; j < records.size(); j++) {
+                    records.get(j).redo();
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean redo() {
+        for (int i = 0; i < records.size(); i++) {
+            if (!records.get(i).redo()) {
+                for (int j = i - 1; j >= 0; j--) {
+                    records.get(j).undo();
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Stops once past limit: the record is over budget either way
+    @Override
+    public long getRetainedBytes(long limit) {
+        if (retainedBytes < 0) {
+            long bytes = 64;
+            for (UndoRecord record : records) {
+                if (bytes > limit)
+                    break;
+                bytes += record.getRetainedBytes(limit);
+            }
+            retainedBytes = bytes;
+        }
+        return retainedBytes;
+    }
+
+    @Override
+    public void discard() {
+        for (UndoRecord record : records) {
+            record.discard();
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package file_system.command;
 
-import file_system.manager.FileSystem;
+import file_system.manager.FileSystemOperations;
+import java.util.ArrayList;
+import java.util.List;
 
 public class CommandFactory {
-    private FileSystem receiver;
+    private FileSystemOperations receiver;
 
-    public CommandFactory(FileSystem receiver) {
+    public CommandFactory(FileSystemOperations receiver) {
         this.receiver = receiver;
     }
 
@@ -53,5 +55,26 @@ public class CommandFactory {
                 return null;
         }
     }
-}
 
+    // One command per line, in the same syntax as the interactive prompt. Blank lines
+    // and lines starting with '#' are skipped, as are lines that don't parse. Write
+    // content is unescaped (see WriteCommand.escape), so spilled history reads back.
+    public List<FileSystemCommand> parseScript(List<String> lines) {
+        List<FileSystemCommand> commands = new ArrayList<>();
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#"))
+                continue;
+            String[] parts = trimmed.split("\\s+", 3);
+            if (parts.length == 3 && parts[0].equalsIgnoreCase("write"))
+                parts[2] = WriteCommand.unescape(parts[2]);
+            FileSystemCommand command = createCommand(parts[0], parts);
+            if (command != null) {
+                commands.add(command);
+            } else {
+                System.out.println("Skipping: " + trimmed);
+            }
+        }
+        return commands;
+    }
+}
@@ -0,0 +1,136 @@
+package file_system.command;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// The most recent commands in a ring, so a long session keeps bounded memory. The ring
+// holds at most capacity commands and, like UndoLog, at most maxBytes of them by their
+// estimated size (FileSystemCommand.getRetainedBytes), so a few huge writes can't pin
+// their content forever. The newest command is always kept, even on its own over budget.
+// With a spill file, commands pushed out of the ring are appended to it one per line
+// ("create /a/b") instead of being forgotten. Lines are buffered until close().
+public class CommandHistory implements Closeable {
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private final FileSystemCommand[] ring;
+    private final long maxBytes;
+    // Index of the oldest entry
+    private int head;
+    private int size;
+    private long retainedBytes;
+    private final BufferedWriter spill;
+    private long spilledCount;
+
+    public CommandHistory(int capacity) {
+        this(capacity, DEFAULT_MAX_BYTES);
+    }
+
+    public CommandHistory(int capacity, long maxBytes) {
+        checkLimits(capacity, maxBytes);
+        this.ring = new FileSystemCommand[capacity];
+        this.maxBytes = maxBytes;
+        this.spill = null;
+    }
+
+    public CommandHistory(int capacity, Path spillFile) throws IOException {
+        this(capacity, DEFAULT_MAX_BYTES, spillFile);
+    }
+
+    public CommandHistory(int capacity, long maxBytes, Path spillFile) throws IOException {
+        checkLimits(capacity, maxBytes);
+        this.ring = new FileSystemCommand[capacity];
+        this.maxBytes = maxBytes;
+        this.spill = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    public synchronized void add(FileSystemCommand command) {
+        if (size == ring.length)
+            evictOldest();
+        ring[(head + size) % ring.length] = command;
+        size++;
+        retainedBytes += command.getRetainedBytes();
+        while (retainedBytes > maxBytes && size > 1) {
+            evictOldest();
+        }
+    }
+
+    // Commands still in memory, oldest first
+    public synchronized List<FileSystemCommand> toList() {
+        List<FileSystemCommand> commands = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            commands.add(ring[(head + i) % ring.length]);
+        }
+        return commands;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    // Estimated size of the commands still in memory
+    public synchronized long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    // Commands written to the spill file since this history was created
+    public synchronized long getSpilledCount() {
+        return spilledCount;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < size; i++) {
+            ring[(head + i) % ring.length] = null;
+        }
+        head = 0;
+        size = 0;
+        retainedBytes = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (spill != null)
+            spill.close();
+    }
+
+    // Caller holds the lock
+    private void evictOldest() {
+        FileSystemCommand evicted = ring[head];
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        size--;
+        retainedBytes -= evicted.getRetainedBytes();
+        if (spill != null) {
+            try {
+                spill.write(evicted.toString());
+                spill.newLine();
+                spilledCount++;
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to spill command history", e);
+            }
+        }
+    }
+
+    private static void checkLimits(int capacity, long maxBytes) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        if (maxBytes <= 0)
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+    }
+}
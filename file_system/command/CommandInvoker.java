@@ -1,18 +1,53 @@
 package file_system.command;
 
+import file_system.manager.FileSystem;
+import file_system.manager.FileSystemOperations;
+import file_system.path.PathCursor;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
-public class CommandInvoker {
-    private List<FileSystemCommand> commandHistory;
+public class CommandInvoker implements Closeable {
+    private static final int DEFAULT_HISTORY_CAPACITY = 1000;
+
+    private final CommandHistory commandHistory;
+    private final ForkJoinPool pool;
+    private final UndoLog undoLog;
 
     public CommandInvoker() {
-        this.commandHistory = new ArrayList<>();
+        this(new CommandHistory(DEFAULT_HISTORY_CAPACITY), ForkJoinPool.commonPool());
+    }
+
+    // Keeps the last historyCapacity commands and appends older ones to spillFile
+    public CommandInvoker(int historyCapacity, Path spillFile) throws IOException {
+        this(new CommandHistory(historyCapacity, spillFile), ForkJoinPool.commonPool());
+    }
+
+    public CommandInvoker(CommandHistory commandHistory, ForkJoinPool pool) {
+        this(commandHistory, pool, new UndoLog());
+    }
+
+    public CommandInvoker(CommandHistory commandHistory, ForkJoinPool pool, UndoLog undoLog) {
+        this.commandHistory = commandHistory;
+        this.pool = pool;
+        this.undoLog = undoLog;
     }
 
     public void executeCommand(FileSystemCommand command) {
         if (command != null) {
-            command.execute();
+            if (command instanceof PathCommand) {
+                UndoRecord record = ((PathCommand) command).executeUndoable();
+                if (record != null)
+                    undoLog.add(record);
+            } else {
+                command.execute();
+            }
             // Don't add exit command to history
             if (!(command instanceof ExitCommand)) {
                 commandHistory.add(command);
@@ -20,12 +55,198 @@ public class CommandInvoker {
         }
     }
 
+    // Runs a script of commands with the same results as executing them one by one in
+    // order, but faster:
+    // - commands under different top-level directories can't affect each other, so
+    //   each top-level subtree runs as its own task on the fork-join pool
+    // - within a subtree, consecutive commands on the same parent directory resolve
+    //   and lock that directory once for the whole run
+    // Commands without a path (display, exit) wait for everything before them and run
+    // alone; exit ends the script. Output of parallel subtrees may interleave, but the
+    // history lists the commands in script order.
+    // The whole batch is a single undo step (see BatchRecord), recorded even if a
+    // command throws part way, so everything that did run can still be reverted.
+    public void executeBatch(List<FileSystemCommand> commands) {
+        List<UndoRecord> records = new ArrayList<>();
+        try {
+            List<PathCommand> pending = new ArrayList<>();
+            for (FileSystemCommand command : commands) {
+                if (command == null)
+                    continue;
+                if (command instanceof PathCommand) {
+                    pending.add((PathCommand) command);
+                    continue;
+                }
+                runSubtrees(pending, records);
+                pending.clear();
+                executeCommand(command);
+                if (command instanceof ExitCommand)
+                    return;
+            }
+            runSubtrees(pending, records);
+        } finally {
+            if (records.size() == 1)
+                undoLog.add(records.get(0));
+            else if (!records.isEmpty())
+                undoLog.add(new BatchRecord(records));
+        }
+    }
+
+    // Reverts the last command executed through executeCommand
+    public boolean undo() {
+        return undoLog.undo();
+    }
+
+    public boolean redo() {
+        return undoLog.redo();
+    }
+
+    public void checkpoint(String name) {
+        undoLog.checkpoint(name);
+    }
+
+    public boolean undoTo(String name) {
+        return undoLog.undoTo(name);
+    }
+
+    public UndoLog getUndoLog() {
+        return undoLog;
+    }
+
     public List<FileSystemCommand> getCommandHistory() {
-        return new ArrayList<>(commandHistory);
+        return commandHistory.toList();
+    }
+
+    public CommandHistory getHistory() {
+        return commandHistory;
     }
 
     public void clearHistory() {
         commandHistory.clear();
     }
-}
 
+    // Writes out the spilled history still buffered
+    @Override
+    public void close() throws IOException {
+        commandHistory.close();
+    }
+
+    // Recorded in history in script order once all have run, not as each subtree finishes
+    private void runSubtrees(List<PathCommand> commands, List<UndoRecord> records) {
+        if (commands.isEmpty())
+            return;
+        executeSubtrees(commands, records);
+        for (PathCommand command : commands) {
+            commandHistory.add(command);
+        }
+    }
+
+    // Adds the undo records of each subtree, in script order within it, to records
+    private void executeSubtrees(List<PathCommand> commands, List<UndoRecord> records) {
+        // Script order is kept inside each subtree
+        Map<String, List<PathCommand>> subtrees = new LinkedHashMap<>();
+        PathCursor cursor = new PathCursor();
+        for (PathCommand command : commands) {
+            String path = command.getPath();
+            String top = path != null && cursor.reset(path).next() ? cursor.toString() : "";
+            subtrees.computeIfAbsent(top, key -> new ArrayList<>()).add(command);
+        }
+        if (subtrees.size() == 1) {
+            runSubtree(commands, records);
+            return;
+        }
+        // One list per task, merged once they have all finished
+        List<List<UndoRecord>> subtreeRecords = new ArrayList<>();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (List<PathCommand> subtree : subtrees.values()) {
+            List<UndoRecord> own = new ArrayList<>();
+            subtreeRecords.add(own);
+            tasks.add(ForkJoinTask.adapt(() -> runSubtree(subtree, own)));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        for (List<UndoRecord> own : subtreeRecords) {
+            records.addAll(own);
+        }
+    }
+
+    // Splits a subtree's commands into runs sharing a parent directory and receiver
+    private void runSubtree(List<PathCommand> commands, List<UndoRecord> records) {
+        String[] parents = new String[commands.size()];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = parentOf(commands.get(i).getPath());
+        }
+        int start = 0;
+        while (start < commands.size()) {
+            PathCommand first = commands.get(start);
+            String parent = parents[start];
+            int end = start + 1;
+            while (parent != null && end < commands.size() && parent.equals(parents[end])
+                    && commands.get(end).getReceiver() == first.getReceiver()) {
+                end++;
+            }
+            runGroup(commands.subList(start, end), parent, records);
+            start = end;
+        }
+    }
+
+    private void runGroup(List<PathCommand> group, String parent, List<UndoRecord> records) {
+        if (group.size() == 1 || !runInDirectory(group, parent, records)) {
+            // The parent may not exist yet and the first command may create it (mkdir -p),
+            // so run that one alone and try the rest as a batch again
+            runAlone(group.get(0), records);
+            List<PathCommand> rest = group.subList(1, group.size());
+            if (rest.size() > 1 && !runInDirectory(rest, parent, records)) {
+                // Still no parent, or a receiver that can't batch
+                for (PathCommand command : rest) {
+                    runAlone(command, records);
+                }
+            } else if (rest.size() == 1) {
+                runAlone(rest.get(0), records);
+            }
+        }
+    }
+
+    private static void runAlone(PathCommand command, List<UndoRecord> records) {
+        UndoRecord record = command.executeUndoable();
+        if (record != null)
+            records.add(record);
+    }
+
+    private boolean runInDirectory(List<PathCommand> group, String parent, List<UndoRecord> records) {
+        boolean exclusive = false;
+        for (PathCommand command : group) {
+            exclusive |= command.needsExclusive();
+        }
+        FileSystemOperations receiver = group.get(0).getReceiver();
+        // Only a FileSystem receiver can record undo, as in PathCommand.executeUndoable
+        FileSystem fileSystem = receiver instanceof FileSystem ? (FileSystem) receiver : null;
+        return receiver.inDirectory(parent, exclusive, directory -> {
+            for (PathCommand command : group) {
+                String name = nameOf(command.getPath());
+                if (fileSystem == null) {
+                    command.executeIn(directory, name);
+                    continue;
+                }
+                UndoRecord record = command.executeUndoableIn(directory, name, fileSystem);
+                if (record != null)
+                    records.add(record);
+            }
+        });
+    }
+
+    // "/a/b/c.txt" -> "/a/b", "/a" -> "/"; null for "/" and invalid paths
+    private static String parentOf(String path) {
+        if (path == null || !path.startsWith("/"))
+            return null;
+        String canonical = PathCursor.canonicalize(path);
+        int slash = canonical.lastIndexOf('/');
+        if (slash == canonical.length() - 1)
+            return null;
+        return slash == 0 ? "/" : canonical.substring(0, slash);
+    }
+
+    private static String nameOf(String path) {
+        String canonical = PathCursor.canonicalize(path);
+        return canonical.substring(canonical.lastIndexOf('/') + 1);
+    }
+}
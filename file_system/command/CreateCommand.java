@@ -1,14 +1,13 @@
 package file_system.command;
 
+import file_system.manager.DirectoryBatch;
 import file_system.manager.FileSystem;
+import file_system.manager.FileSystemOperations;
+import file_system.path.PathCursor;
 
-public class CreateCommand implements FileSystemCommand {
-    private FileSystem receiver;
-    private String path;
-
-    public CreateCommand(FileSystem receiver, String path) {
-        this.receiver = receiver;
-        this.path = path;
+public class CreateCommand extends PathCommand {
+    public CreateCommand(FileSystemOperations receiver, String path) {
+        super(receiver, path);
     }
 
     @Override
@@ -16,5 +15,31 @@ public class CreateCommand implements FileSystemCommand {
         boolean isCreated = receiver.createPath(path);
         System.out.println(isCreated ? "Path created successfully" : "Failed to create path");
     }
-}
 
+    @Override
+    protected UndoRecord executeUndoable(FileSystem fileSystem) {
+        String created = fileSystem.isValidFilePath(path) ? CreateRecord.firstMissing(fileSystem, path) : null;
+        boolean isCreated = fileSystem.createPath(path);
+        System.out.println(isCreated ? "Path created successfully" : "Failed to create path");
+        return isCreated && created != null ? new CreateRecord(fileSystem, created) : null;
+    }
+
+    @Override
+    public void executeIn(DirectoryBatch parent, String name) {
+        boolean isCreated = parent.createChild(name);
+        System.out.println(isCreated ? "Path created successfully" : "Failed to create path");
+    }
+
+    // The parent exists, so the child is all a successful create adds
+    @Override
+    public UndoRecord executeUndoableIn(DirectoryBatch parent, String name, FileSystem fileSystem) {
+        boolean isCreated = parent.createChild(name);
+        System.out.println(isCreated ? "Path created successfully" : "Failed to create path");
+        return isCreated ? new CreateRecord(fileSystem, PathCursor.canonicalize(path)) : null;
+    }
+
+    @Override
+    public String toString() {
+        return "create " + path;
+    }
+}
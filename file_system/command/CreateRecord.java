@@ -0,0 +1,58 @@
+package file_system.command;
+
+import file_system.manager.FileSystem;
+import file_system.node.Node;
+import file_system.path.PathCursor;
+
+// Undoing a create detaches the highest directory it added (mkdir -p may add several),
+// and keeps that subtree so redo can attach the very same nodes again.
+final class CreateRecord implements UndoRecord {
+    private final FileSystem fileSystem;
+    private final String created;
+    // Set while undone
+    private Node detached;
+
+    CreateRecord(FileSystem fileSystem, String created) {
+        this.fileSystem = fileSystem;
+        this.created = created;
+    }
+
+    // The shortest prefix of path that doesn't exist yet, i.e. what createPath(path)
+    // would add; null if path already exists
+    static String firstMissing(FileSystem fileSystem, String path) {
+        String canonical = PathCursor.canonicalize(path);
+        for (int slash = canonical.indexOf('/', 1); slash > 0; slash = canonical.indexOf('/', slash + 1)) {
+            String prefix = canonical.substring(0, slash);
+            if (!fileSystem.exists(prefix))
+                return prefix;
+        }
+        return fileSystem.exists(canonical) ? null : canonical;
+    }
+
+    @Override
+    public boolean undo() {
+        detached = fileSystem.detachPath(created);
+        return detached != null;
+    }
+
+    @Override
+    public boolean redo() {
+        if (!fileSystem.attachPath(created, detached))
+            return false;
+        detached = null;
+        return true;
+    }
+
+    @Override
+    public long getRetainedBytes(long limit) {
+        return 64 + 2L * created.length();
+    }
+
+    @Override
+    public void discard() {
+        if (detached != null) {
+            fileSystem.discardDetached(detached);
+            detached = null;
+        }
+    }
+}
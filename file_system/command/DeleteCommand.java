@@ -1,14 +1,14 @@
 package file_system.command;
 
+import file_system.manager.DirectoryBatch;
 import file_system.manager.FileSystem;
+import file_system.manager.FileSystemOperations;
+import file_system.node.Node;
+import file_system.path.PathCursor;
 
-public class DeleteCommand implements FileSystemCommand {
-    private FileSystem receiver;
-    private String path;
-
-    public DeleteCommand(FileSystem receiver, String path) {
-        this.receiver = receiver;
-        this.path = path;
+public class DeleteCommand extends PathCommand {
+    public DeleteCommand(FileSystemOperations receiver, String path) {
+        super(receiver, path);
     }
 
     @Override
@@ -16,5 +16,35 @@ public class DeleteCommand implements FileSystemCommand {
         boolean isDeleted = receiver.deletePath(path);
         System.out.println(isDeleted ? "Path deleted successfully" : "Failed to delete path");
     }
-}
 
+    // Keeps the removed subtree instead of freeing it, so undo can put it back
+    @Override
+    protected UndoRecord executeUndoable(FileSystem fileSystem) {
+        Node removed = fileSystem.detachPath(path);
+        System.out.println(removed != null ? "Path deleted successfully" : "Failed to delete path");
+        return removed != null ? new DeleteRecord(fileSystem, PathCursor.canonicalize(path), removed) : null;
+    }
+
+    @Override
+    public boolean needsExclusive() {
+        return true;
+    }
+
+    @Override
+    public void executeIn(DirectoryBatch parent, String name) {
+        boolean isDeleted = parent.deleteChild(name);
+        System.out.println(isDeleted ? "Path deleted successfully" : "Failed to delete path");
+    }
+
+    @Override
+    public UndoRecord executeUndoableIn(DirectoryBatch parent, String name, FileSystem fileSystem) {
+        Node removed = parent.detachChild(name);
+        System.out.println(removed != null ? "Path deleted successfully" : "Failed to delete path");
+        return removed != null ? new DeleteRecord(fileSystem, PathCursor.canonicalize(path), removed) : null;
+    }
+
+    @Override
+    public String toString() {
+        return "delete " + path;
+    }
+}
@@ -0,0 +1,85 @@
+package file_system.command;
+
+import file_system.manager.FileSystem;
+import file_system.node.File;
+import file_system.node.Node;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Undoing a delete attaches the removed subtree back as it was; the record holds the
+// detached nodes themselves, so a delete of any size is one reference. Its memory
+// estimate walks the subtree, but only when the log first asks and only up to the
+// log's budget.
+final class DeleteRecord implements UndoRecord {
+    // Rough heap cost of a node with its map entry, name and lock
+    private static final long NODE_BYTES = 200;
+
+    private final FileSystem fileSystem;
+    private final String path;
+    private final Node removed;
+    // -1 until the log first asks
+    private long retainedBytes = -1;
+    // False while undone, when the subtree is back in the tree
+    private boolean applied = true;
+
+    DeleteRecord(FileSystem fileSystem, String path, Node removed) {
+        this.fileSystem = fileSystem;
+        this.path = path;
+        this.removed = removed;
+    }
+
+    @Override
+    public boolean undo() {
+        if (!fileSystem.attachPath(path, removed))
+            return false;
+        applied = false;
+        return true;
+    }
+
+    @Override
+    public boolean redo() {
+        Node current = fileSystem.detachPath(path);
+        if (current == null)
+            return false;
+        if (current != removed) {
+            // Something else took the name since; leave it where it was
+            fileSystem.attachPath(path, current);
+            return false;
+        }
+        applied = true;
+        return true;
+    }
+
+    @Override
+    public long getRetainedBytes(long limit) {
+        if (retainedBytes < 0)
+            retainedBytes = sizeOf(removed, limit) + 2L * path.length();
+        return retainedBytes;
+    }
+
+    @Override
+    public void discard() {
+        // Once undone the subtree belongs to the tree again
+        if (applied)
+            fileSystem.discardDetached(removed);
+    }
+
+    // Stops once past limit: the record is over budget either way
+    private static long sizeOf(Node root, long limit) {
+        long bytes = 0;
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty() && bytes <= limit) {
+            Node node = pending.pop();
+            bytes += NODE_BYTES + 2L * node.getName().length();
+            if (node.isFile()) {
+                bytes += ((File) node).size();
+            } else {
+                for (Node child : node.getChildren()) {
+                    pending.push(child);
+                }
+            }
+        }
+        return bytes;
+    }
+}
@@ -1,11 +1,11 @@
 package file_system.command;
 
-import file_system.manager.FileSystem;
+import file_system.manager.FileSystemOperations;
 
 public class DisplayCommand implements FileSystemCommand {
-    private FileSystem receiver;
+    private FileSystemOperations receiver;
 
-    public DisplayCommand(FileSystem receiver) {
+    public DisplayCommand(FileSystemOperations receiver) {
         this.receiver = receiver;
     }
 
@@ -14,5 +14,9 @@ public class DisplayCommand implements FileSystemCommand {
         System.out.println("File System Structure:");
         receiver.display();
     }
-}
 
+    @Override
+    public String toString() {
+        return "display";
+    }
+}
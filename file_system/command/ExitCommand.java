@@ -5,5 +5,9 @@ public class ExitCommand implements FileSystemCommand {
     public void execute() {
         System.out.println("Exiting...");
     }
-}
 
+    @Override
+    public String toString() {
+        return "exit";
+    }
+}
@@ -2,4 +2,10 @@ package file_system.command;
 
 public interface FileSystemCommand {
     void execute();
+
+    // Rough heap cost of keeping this command, for CommandHistory's memory budget.
+    // Must return the same value every time it is called.
+    default long getRetainedBytes() {
+        return 32;
+    }
 }
@@ -0,0 +1,60 @@
+package file_system.command;
+
+import file_system.manager.DirectoryBatch;
+import file_system.manager.FileSystem;
+import file_system.manager.FileSystemOperations;
+
+// A command that works on one path. Knowing the path lets CommandInvoker batch commands
+// that share a parent directory and run commands on unrelated subtrees in parallel.
+public abstract class PathCommand implements FileSystemCommand {
+    protected final FileSystemOperations receiver;
+    protected final String path;
+
+    protected PathCommand(FileSystemOperations receiver, String path) {
+        this.receiver = receiver;
+        this.path = path;
+    }
+
+    public FileSystemOperations getReceiver() {
+        return receiver;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public long getRetainedBytes() {
+        return 48 + (path != null ? 2L * path.length() : 0);
+    }
+
+    // Whether executeIn removes children, so the batch must lock the parent exclusively
+    public boolean needsExclusive() {
+        return false;
+    }
+
+    // Same as execute(), and returns how to revert it, or null if nothing changed.
+    // Reverting needs detachable subtrees and chunk references to old content, which
+    // only a FileSystem receiver offers; other receivers just execute.
+    public UndoRecord executeUndoable() {
+        if (receiver instanceof FileSystem)
+            return executeUndoable((FileSystem) receiver);
+        execute();
+        return null;
+    }
+
+    protected UndoRecord executeUndoable(FileSystem fileSystem) {
+        execute();
+        return null;
+    }
+
+    // Same as execute(), against the already resolved parent directory of path
+    public abstract void executeIn(DirectoryBatch parent, String name);
+
+    // Same as executeIn, and returns how to revert it, or null if nothing changed.
+    // fileSystem is the receiver that opened the batch.
+    public UndoRecord executeUndoableIn(DirectoryBatch parent, String name, FileSystem fileSystem) {
+        executeIn(parent, name);
+        return null;
+    }
+}
@@ -1,24 +1,33 @@
 package file_system.command;
 
-import file_system.manager.FileSystem;
+import file_system.manager.DirectoryBatch;
+import file_system.manager.FileSystemOperations;
 
-public class ReadCommand implements FileSystemCommand {
-    private FileSystem receiver;
-    private String path;
-
-    public ReadCommand(FileSystem receiver, String path) {
-        this.receiver = receiver;
-        this.path = path;
+public class ReadCommand extends PathCommand {
+    public ReadCommand(FileSystemOperations receiver, String path) {
+        super(receiver, path);
     }
 
     @Override
     public void execute() {
-        String content = receiver.getFileContent(path);
+        print(receiver.getFileContent(path));
+    }
+
+    @Override
+    public void executeIn(DirectoryBatch parent, String name) {
+        print(parent.readChild(name));
+    }
+
+    private void print(String content) {
         if (content != null) {
             System.out.println("Content: " + content);
         } else {
             System.out.println("Failed to read content");
         }
     }
-}
 
+    @Override
+    public String toString() {
+        return "read " + path;
+    }
+}
@@ -0,0 +1,172 @@
+package file_system.command;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+// Undo and redo stacks of UndoRecords with a memory budget.
+//
+// Records only reference what a command replaced, so most cost a few dozen bytes and
+// millions fit. When the records together keep more than maxBytes alive, the oldest are
+// dropped (and their detached subtrees and old content freed), so long sessions keep a
+// bounded tail of history instead of growing without limit. The newest record is always
+// kept, even on its own over budget, so the last command can be undone.
+//
+// A checkpoint names a position in the history; undoTo and redoTo move straight there.
+// Checkpoints that fall out of the retained history are forgotten.
+//
+// Records assume the tree changes only through the log's commands; a change made
+// around it can make undo or redo fail, which drops the affected records.
+public class UndoLog {
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final long maxBytes;
+    // Applied records, oldest first
+    private final Deque<UndoRecord> done = new ArrayDeque<>();
+    // Undone records, next to redo first
+    private final Deque<UndoRecord> undone = new ArrayDeque<>();
+    // Name -> number of records applied at that point
+    private final Map<String, Long> checkpoints = new HashMap<>();
+    private long retainedBytes;
+    // Records dropped from the old end, so positions stay stable
+    private long dropped;
+
+    public UndoLog() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public UndoLog(long maxBytes) {
+        if (maxBytes <= 0)
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        this.maxBytes = maxBytes;
+    }
+
+    // Records a command that was just executed; anything undone can no longer be redone
+    public synchronized void add(UndoRecord record) {
+        clearRedo();
+        done.addLast(record);
+        retainedBytes += record.getRetainedBytes(maxBytes);
+        trim();
+    }
+
+    public synchronized boolean undo() {
+        UndoRecord record = done.pollLast();
+        if (record == null)
+            return false;
+        if (!record.undo()) {
+            // Older records may depend on this one being reverted; only redo is lost
+            drop(record);
+            clearRedo();
+            return false;
+        }
+        undone.push(record);
+        return true;
+    }
+
+    public synchronized boolean redo() {
+        UndoRecord record = undone.poll();
+        if (record == null)
+            return false;
+        if (!record.redo()) {
+            drop(record);
+            clearRedo();
+            return false;
+        }
+        done.addLast(record);
+        return true;
+    }
+
+    // Names the current position, replacing an older checkpoint of the same name
+    public synchronized void checkpoint(String name) {
+        checkpoints.put(name, position());
+    }
+
+    // Undoes everything applied after the checkpoint
+    public synchronized boolean undoTo(String name) {
+        Long target = checkpoints.get(name);
+        if (target == null || target > position())
+            return false;
+        while (position() > target) {
+            if (!undo())
+                return false;
+        }
+        return true;
+    }
+
+    // Redoes everything undone up to the checkpoint
+    public synchronized boolean redoTo(String name) {
+        Long target = checkpoints.get(name);
+        if (target == null || target < position())
+            return false;
+        while (position() < target) {
+            if (!redo())
+                return false;
+        }
+        return true;
+    }
+
+    public synchronized boolean hasCheckpoint(String name) {
+        return checkpoints.containsKey(name);
+    }
+
+    // Drops all history, e.g. after the tree changed in ways the log didn't see
+    public synchronized void clear() {
+        clearRedo();
+        while (!done.isEmpty()) {
+            drop(done.pollFirst());
+        }
+        dropped = 0;
+        checkpoints.clear();
+    }
+
+    public synchronized int getUndoCount() {
+        return done.size();
+    }
+
+    public synchronized int getRedoCount() {
+        return undone.size();
+    }
+
+    public synchronized long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private long position() {
+        return dropped + done.size();
+    }
+
+    private void clearRedo() {
+        while (!undone.isEmpty()) {
+            drop(undone.poll());
+        }
+        long position = position();
+        checkpoints.values().removeIf(target -> target > position);
+    }
+
+    // Oldest undo records go first, keeping the newest; redo records only once there
+    // are none left, keeping the next one to redo
+    private void trim() {
+        if (retainedBytes <= maxBytes)
+            return;
+        while (retainedBytes > maxBytes && done.size() > 1) {
+            drop(done.pollFirst());
+            dropped++;
+        }
+        while (retainedBytes > maxBytes && undone.size() > 1) {
+            drop(undone.pollLast());
+        }
+        long oldest = dropped;
+        long newest = position() + undone.size();
+        checkpoints.values().removeIf(target -> target < oldest || target > newest);
+    }
+
+    private void drop(UndoRecord record) {
+        retainedBytes -= record.getRetainedBytes(maxBytes);
+        record.discard();
+    }
+}
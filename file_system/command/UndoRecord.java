@@ -0,0 +1,19 @@
+package file_system.command;
+
+// How to revert one executed command and apply it again. A record holds references to
+// what the command replaced (a detached subtree, the chunks of old content) rather than
+// copies, so it costs little beyond what the tree already held.
+public interface UndoRecord {
+    // Reverts the change; false if the tree no longer allows it
+    boolean undo();
+
+    // Applies the change again after undo; false if the tree no longer allows it
+    boolean redo();
+
+    // Estimate of the memory kept alive only by this record. It may stop counting once
+    // past limit, and must return the same value every time it is called.
+    long getRetainedBytes(long limit);
+
+    // Called once the record leaves the log, to free whatever only it still needs
+    void discard();
+}
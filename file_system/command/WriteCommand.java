@@ -1,15 +1,15 @@
 package file_system.command;
 
+import file_system.content.ContentSnapshot;
+import file_system.manager.DirectoryBatch;
 import file_system.manager.FileSystem;
+import file_system.manager.FileSystemOperations;
 
-public class WriteCommand implements FileSystemCommand {
-    private FileSystem receiver;
-    private String path;
+public class WriteCommand extends PathCommand {
     private String content;
 
-    public WriteCommand(FileSystem receiver, String path, String content) {
-        this.receiver = receiver;
-        this.path = path;
+    public WriteCommand(FileSystemOperations receiver, String path, String content) {
+        super(receiver, path);
         this.content = content;
     }
 
@@ -18,5 +18,131 @@ public class WriteCommand implements FileSystemCommand {
         boolean isWritten = receiver.setFileContent(path, content);
         System.out.println(isWritten ? "Content written successfully" : "Failed to write content");
     }
-}
 
+    @Override
+    protected UndoRecord executeUndoable(FileSystem fileSystem) {
+        ContentSnapshot before = fileSystem.captureFileContent(path);
+        boolean isWritten = fileSystem.setFileContent(path, content);
+        System.out.println(isWritten ? "Content written successfully" : "Failed to write content");
+        if (before == null)
+            return null;
+        ContentSnapshot after = isWritten ? fileSystem.captureFileContent(path) : null;
+        if (after == null) {
+            before.release();
+            return null;
+        }
+        return new WriteRecord(fileSystem, path, before, after);
+    }
+
+    @Override
+    public void executeIn(DirectoryBatch parent, String name) {
+        boolean isWritten = parent.writeChild(name, content);
+        System.out.println(isWritten ? "Content written successfully" : "Failed to write content");
+    }
+
+    @Override
+    public UndoRecord executeUndoableIn(DirectoryBatch parent, String name, FileSystem fileSystem) {
+        ContentSnapshot before = parent.captureChild(name);
+        boolean isWritten = parent.writeChild(name, content);
+        System.out.println(isWritten ? "Content written successfully" : "Failed to write content");
+        if (before == null)
+            return null;
+        ContentSnapshot after = isWritten ? parent.captureChild(name) : null;
+        if (after == null) {
+            before.release();
+            return null;
+        }
+        return new WriteRecord(fileSystem, path, before, after);
+    }
+
+    // The content is what makes a write expensive to keep
+    @Override
+    public long getRetainedBytes() {
+        return super.getRetainedBytes() + (content != null ? 2L * content.length() : 0);
+    }
+
+    // Script syntax, so the line reads back through CommandFactory.parseScript
+    @Override
+    public String toString() {
+        return "write " + path + " " + escape(content);
+    }
+
+    // Keeps the content on one line and its edges intact through the script parser's
+    // trim and split: backslash, CR, LF and tab become \\, \r, \n and \t, a space at
+    // either end \s, and other control characters there a backslash, 'u' and four hex
+    // digits. Null is \0 and empty content \e.
+    static String escape(String content) {
+        if (content == null)
+            return "\\0";
+        if (content.isEmpty())
+            return "\\e";
+        StringBuilder escaped = new StringBuilder(content.length() + 8);
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            boolean edge = i == 0 || i == content.length() - 1;
+            if (c == '\\')
+                escaped.append("\\\\");
+            else if (c == '\n')
+                escaped.append("\\n");
+            else if (c == '\r')
+                escaped.append("\\r");
+            else if (c == '\t')
+                escaped.append("\\t");
+            else if (edge && c == ' ')
+                escaped.append("\\s");
+            else if (edge && c < ' ')
+                escaped.append(String.format("\\u%04x", (int) c));
+            else
+                escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    // Reverses escape; an unknown escape keeps its character
+    static String unescape(String escaped) {
+        if (escaped.equals("\\0"))
+            return null;
+        if (escaped.equals("\\e"))
+            return "";
+        if (escaped.indexOf('\\') < 0)
+            return escaped;
+        StringBuilder content = new StringBuilder(escaped.length());
+        for (int i = 0; i < escaped.length(); i++) {
+            char c = escaped.charAt(i);
+            if (c != '\\' || i == escaped.length() - 1) {
+                content.append(c);
+                continue;
+            }
+            char next = escaped.charAt(++i);
+            switch (next) {
+                case 'n':
+                    content.append('\n');
+                    break;
+                case 'r':
+                    content.append('\r');
+                    break;
+                case 't':
+                    content.append('\t');
+                    break;
+                case 's':
+                    content.append(' ');
+                    break;
+                case 'u':
+                    if (i + 4 < escaped.length()) {
+                        try {
+                            content.append((char) Integer.parseInt(escaped.substring(i + 1, i + 5), 16));
+                            i += 4;
+                            break;
+                        } catch (NumberFormatException e) {
+                            // Not an escape after all
+                        }
+                    }
+                    content.append(next);
+                    break;
+                default:
+                    content.append(next);
+            }
+        }
+        return content.toString();
+    }
+}
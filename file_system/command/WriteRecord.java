@@ -0,0 +1,51 @@
+package file_system.command;
+
+import file_system.content.ContentSnapshot;
+import file_system.manager.FileSystem;
+
+// Undoing a write restores the content from before it, redo the content it wrote. Both
+// are chunk references, so content the two versions share is stored once.
+final class WriteRecord implements UndoRecord {
+    // An array slot per chunk reference, whatever the chunk's size
+    private static final long REFERENCE_BYTES = 8;
+
+    private final FileSystem fileSystem;
+    private final String path;
+    private final ContentSnapshot before;
+    private final ContentSnapshot after;
+    private final long retainedBytes;
+
+    // after must be the file's content right after the write
+    WriteRecord(FileSystem fileSystem, String path, ContentSnapshot before, ContentSnapshot after) {
+        this.fileSystem = fileSystem;
+        this.path = path;
+        this.before = before;
+        this.after = after;
+        // after is still the tree's content, so only the chunks of before that the write
+        // replaced are extra. When a later write replaces after, its record pays for them.
+        this.retainedBytes = 64 + 2L * path.length()
+                + REFERENCE_BYTES * (before.getChunkCount() + after.getChunkCount()) + before.bytesNotIn(after);
+    }
+
+    @Override
+    public boolean undo() {
+        return fileSystem.restoreFileContent(path, before);
+    }
+
+    @Override
+    public boolean redo() {
+        return fileSystem.restoreFileContent(path, after);
+    }
+
+    // Fixed when the record is made; chunks deduplicated with other files still count
+    @Override
+    public long getRetainedBytes(long limit) {
+        return retainedBytes;
+    }
+
+    @Override
+    public void discard() {
+        before.release();
+        after.release();
+    }
+}
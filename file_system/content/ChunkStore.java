@@ -0,0 +1,162 @@
+package file_system.content;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Content-addressed chunk storage: every distinct chunk of bytes is stored once and
+// shared by all files that contain it, with a reference count per chunk.
+//
+// Chunks are keyed by their bytes themselves (hash plus full comparison), so two
+// different chunks can never be merged by a hash collision.
+public class ChunkStore {
+    private static final ChunkStore DEFAULT = new ChunkStore();
+
+    // An immutable, shared run of bytes. Equality is by content.
+    public static final class Chunk {
+        private final byte[] data;
+        private final int offset;
+        private final int length;
+        private final int hash;
+        private final AtomicInteger refs = new AtomicInteger(1);
+
+        private Chunk(byte[] data, int offset, int length, int hash) {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+            this.hash = hash;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public void copyTo(int from, byte[] dst, int off, int len) {
+            System.arraycopy(data, offset + from, dst, off, len);
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(data, offset, length);
+        }
+
+        // Takes a reference unless the last one is already gone
+        private boolean retain() {
+            int current;
+            do {
+                current = refs.get();
+                if (current == 0)
+                    return false;
+            } while (!refs.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Chunk))
+                return false;
+            Chunk other = (Chunk) o;
+            return hash == other.hash && Arrays.equals(data, offset, offset + length,
+                    other.data, other.offset, other.offset + other.length);
+        }
+    }
+
+    private final ConcurrentHashMap<Chunk, Chunk> chunks = new ConcurrentHashMap<>();
+    // Bytes as seen by files (each reference counted) vs bytes actually held
+    private final AtomicLong logicalBytes = new AtomicLong();
+    private final AtomicLong physicalBytes = new AtomicLong();
+
+    // Store shared by files created outside a FileSystem
+    public static ChunkStore getDefault() {
+        return DEFAULT;
+    }
+
+    // Returns the stored chunk with these bytes, adding a copy if there is none, and
+    // takes one reference to it. Every intern must be paired with a release.
+    public Chunk intern(byte[] src, int off, int len) {
+        Chunk probe = new Chunk(src, off, len, hash(src, off, len));
+        while (true) {
+            Chunk existing = chunks.get(probe);
+            if (existing != null) {
+                if (existing.retain()) {
+                    logicalBytes.addAndGet(len);
+                    return existing;
+                }
+                // Its last reference was just released; clear it out and retry
+                removeIfSame(existing);
+                continue;
+            }
+            Chunk created = new Chunk(Arrays.copyOfRange(src, off, off + len), 0, len, probe.hash);
+            if (chunks.putIfAbsent(created, created) == null) {
+                physicalBytes.addAndGet(len);
+                logicalBytes.addAndGet(len);
+                return created;
+            }
+        }
+    }
+
+    // Takes another reference to a chunk the caller already holds one to
+    public void retain(Chunk chunk) {
+        if (!chunk.retain())
+            throw new IllegalStateException("chunk was already freed");
+        logicalBytes.addAndGet(chunk.length);
+    }
+
+    // Drops one reference; the chunk is freed with its last one
+    public void release(Chunk chunk) {
+        logicalBytes.addAndGet(-chunk.length);
+        if (chunk.refs.decrementAndGet() == 0) {
+            physicalBytes.addAndGet(-chunk.length);
+            removeIfSame(chunk);
+        }
+    }
+
+    // Removes this exact instance; a live chunk with equal bytes that replaced it stays
+    private void removeIfSame(Chunk chunk) {
+        chunks.computeIfPresent(chunk, (key, current) -> current == chunk ? null : current);
+    }
+
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    public long getLogicalBytes() {
+        return logicalBytes.get();
+    }
+
+    public long getPhysicalBytes() {
+        return physicalBytes.get();
+    }
+
+    // Logical / physical; 1.0 means no duplication
+    public double getDedupRatio() {
+        long physical = physicalBytes.get();
+        return physical == 0 ? 1.0 : (double) logicalBytes.get() / physical;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ChunkStore[chunks=%d, logical=%d B, physical=%d B, dedup=%.2fx]",
+                getChunkCount(), getLogicalBytes(), getPhysicalBytes(), getDedupRatio());
+    }
+
+    private static int hash(byte[] data, int off, int len) {
+        long h = 0x9E3779B97F4A7C15L ^ len;
+        for (int i = off; i < off + len; i++) {
+            h = (h ^ (data[i] & 0xFF)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
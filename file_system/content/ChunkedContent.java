@@ -0,0 +1,205 @@
+package file_system.content;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// File bytes held as a list of shared chunks from a ChunkStore instead of one String.
+//
+// length = 20000
+// chunks: [0..7311] [7312..16833] [16834..19999]
+// ends:   7312      16834         20000
+//
+// Chunk boundaries are content-defined (see ContentChunker), so files with the same
+// bytes, or long identical regions, end up referencing the same chunks. A ranged read
+// binary-searches ends for its first chunk and copies only the chunks it covers.
+//
+// The last chunk is "open" when it ended only because the data did: an append re-chunks
+// it together with the new bytes, so appending costs the new bytes plus at most one
+// chunk. Truncation releases whole chunks and re-stores the one it cuts through.
+// Not thread-safe; File guards it with a lock.
+public class ChunkedContent {
+    private final ChunkStore store;
+    private final List<ChunkStore.Chunk> chunks = new ArrayList<>();
+    // ends[i] = offset just past chunk i
+    private long[] ends = new long[4];
+    private long length;
+    // Whether the last chunk may still grow, i.e. no boundary was found at its end
+    private boolean tailOpen;
+
+    public ChunkedContent(ChunkStore store) {
+        this.store = store;
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    // Copies up to len bytes starting at position into dst; returns the number of
+    // bytes copied, or -1 if position is at or past the end
+    public int read(long position, byte[] dst, int off, int len) {
+        if (position < 0)
+            throw new IllegalArgumentException("position must not be negative: " + position);
+        if (position >= length)
+            return len == 0 ? 0 : -1;
+        int total = (int) Math.min(len, length - position);
+        int index = chunkAt(position);
+        int inChunk = (int) (position - start(index));
+        int copied = 0;
+        while (copied < total) {
+            ChunkStore.Chunk chunk = chunks.get(index);
+            int n = Math.min(total - copied, chunk.length() - inChunk);
+            chunk.copyTo(inChunk, dst, off + copied, n);
+            copied += n;
+            index++;
+            inChunk = 0;
+        }
+        return total;
+    }
+
+    public void append(byte[] src, int off, int len) {
+        if (len == 0)
+            return;
+        if (!tailOpen) {
+            addChunks(src, off, off + len);
+            return;
+        }
+        // Re-chunk the open tail together with the new bytes
+        ChunkStore.Chunk tail = removeLast();
+        byte[] joined = new byte[tail.length() + len];
+        tail.copyTo(0, joined, 0, tail.length());
+        System.arraycopy(src, off, joined, tail.length(), len);
+        addChunks(joined, 0, joined.length);
+        // Released after the new chunks took their references, so a tail that comes
+        // back unchanged isn't freed and re-added
+        store.release(tail);
+    }
+
+    // Replaces everything with src. New chunks are taken before the old ones are
+    // released, so rewriting the same bytes only moves reference counts.
+    public void replace(byte[] src, int off, int len) {
+        List<ChunkStore.Chunk> old = new ArrayList<>(chunks);
+        chunks.clear();
+        length = 0;
+        tailOpen = false;
+        addChunks(src, off, off + len);
+        for (ChunkStore.Chunk chunk : old) {
+            store.release(chunk);
+        }
+    }
+
+    // Current content as chunk references, e.g. to undo a later write
+    public ContentSnapshot snapshot(boolean hasContent) {
+        ChunkStore.Chunk[] held = chunks.toArray(new ChunkStore.Chunk[0]);
+        for (ChunkStore.Chunk chunk : held) {
+            store.retain(chunk);
+        }
+        return new ContentSnapshot(store, held, length, tailOpen, hasContent);
+    }
+
+    // Makes the content what it was when snapshot was taken; the snapshot stays valid
+    public void restore(ContentSnapshot snapshot) {
+        if (snapshot.isReleased())
+            throw new IllegalStateException("snapshot was released");
+        for (ChunkStore.Chunk chunk : snapshot.chunks) {
+            store.retain(chunk);
+        }
+        List<ChunkStore.Chunk> old = new ArrayList<>(chunks);
+        chunks.clear();
+        length = 0;
+        for (ChunkStore.Chunk chunk : snapshot.chunks) {
+            addChunk(chunk);
+        }
+        tailOpen = snapshot.tailOpen;
+        for (ChunkStore.Chunk chunk : old) {
+            store.release(chunk);
+        }
+    }
+
+    // Shrinks to newLength bytes; growing is not supported
+    public void truncate(long newLength) {
+        if (newLength < 0 || newLength > length)
+            throw new IllegalArgumentException("cannot truncate " + length + " bytes to " + newLength);
+        if (newLength == length)
+            return;
+        if (newLength == 0) {
+            clear();
+            return;
+        }
+        int last = chunkAt(newLength - 1);
+        while (chunks.size() > last + 1) {
+            store.release(removeLast());
+        }
+        if (length == newLength) {
+            // Cut falls on a boundary found by the chunker, so the prefix chunks as before
+            tailOpen = false;
+            return;
+        }
+        ChunkStore.Chunk cut = removeLast();
+        byte[] prefix = new byte[(int) (newLength - length)];
+        cut.copyTo(0, prefix, 0, prefix.length);
+        addChunk(store.intern(prefix, 0, prefix.length));
+        tailOpen = true;
+        store.release(cut);
+    }
+
+    // Releases every chunk
+    public void clear() {
+        for (ChunkStore.Chunk chunk : chunks) {
+            store.release(chunk);
+        }
+        chunks.clear();
+        length = 0;
+        tailOpen = false;
+    }
+
+    public byte[] toByteArray() {
+        if (length > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("content too large for one array: " + length + " bytes");
+        byte[] bytes = new byte[(int) length];
+        read(0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    private void addChunks(byte[] data, int from, int to) {
+        int start = from;
+        while (start < to) {
+            int boundary = ContentChunker.findBoundary(data, start, to);
+            tailOpen = boundary < 0;
+            int end = tailOpen ? to : boundary;
+            addChunk(store.intern(data, start, end - start));
+            start = end;
+        }
+    }
+
+    private void addChunk(ChunkStore.Chunk chunk) {
+        int index = chunks.size();
+        if (index == ends.length)
+            ends = Arrays.copyOf(ends, index * 2);
+        length += chunk.length();
+        ends[index] = length;
+        chunks.add(chunk);
+    }
+
+    // Caller releases the returned chunk
+    private ChunkStore.Chunk removeLast() {
+        ChunkStore.Chunk chunk = chunks.remove(chunks.size() - 1);
+        length -= chunk.length();
+        return chunk;
+    }
+
+    private long start(int index) {
+        return index == 0 ? 0 : ends[index - 1];
+    }
+
+    // Index of the chunk holding byte position, which must be below length
+    private int chunkAt(long position) {
+        int index = Arrays.binarySearch(ends, 0, chunks.size(), position);
+        // An exact match is the end of chunk index, so position starts the next one
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+}
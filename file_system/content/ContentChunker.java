@@ -0,0 +1,51 @@
+package file_system.content;
+
+import java.util.SplittableRandom;
+
+// Content-defined chunking with a gear rolling hash (as in FastCDC).
+//
+// The hash is updated per byte as hash = (hash << 1) + GEAR[byte], so after 64 bytes
+// it only depends on the last 64 bytes of input. A chunk ends where the top bits of the
+// hash are all zero. Boundaries therefore follow the content rather than offsets:
+// inserting a byte near the start of a file shifts one or two chunks, and every chunk
+// after that is found again unchanged, so identical regions dedupe.
+final class ContentChunker {
+    static final int MIN_CHUNK = 2 * 1024;
+    static final int MAX_CHUNK = 64 * 1024;
+    // 13 bits: on random data a boundary every ~8 KB past MIN_CHUNK. The top bits are
+    // used because the low bits only depend on the last few bytes.
+    private static final long BOUNDARY_MASK = ((1L << 13) - 1) << (64 - 13);
+
+    // Fixed seed: chunk boundaries must be identical across runs and instances
+    private static final long[] GEAR = new long[256];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private ContentChunker() {
+    }
+
+    // End (exclusive) of the chunk starting at start, or -1 if no boundary is found
+    // before end and the chunk stays open for more data
+    static int findBoundary(byte[] data, int start, int end) {
+        int limit = Math.min(end, start + MAX_CHUNK);
+        int i = start + MIN_CHUNK;
+        if (i >= limit)
+            return -1;
+        // Bytes before MIN_CHUNK can't end a chunk but still feed the hash window
+        long hash = 0;
+        for (int j = Math.max(start, i - 64); j < i; j++) {
+            hash = (hash << 1) + GEAR[data[j] & 0xFF];
+        }
+        for (; i < limit; i++) {
+            hash = (hash << 1) + GEAR[data[i] & 0xFF];
+            if ((hash & BOUNDARY_MASK) == 0)
+                return i + 1;
+        }
+        return limit - start == MAX_CHUNK ? limit : -1;
+    }
+}
@@ -0,0 +1,76 @@
+package file_system.content;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+// A file's content at one point in time, held as references to its chunks rather than
+// a copy of its bytes. While the snapshot lives, those chunks stay in the store; only
+// chunks the file no longer shares with anything else cost extra memory.
+public final class ContentSnapshot {
+    private final ChunkStore store;
+    final ChunkStore.Chunk[] chunks;
+    final long length;
+    final boolean tailOpen;
+    private final boolean hasContent;
+    private boolean released;
+
+    ContentSnapshot(ChunkStore store, ChunkStore.Chunk[] chunks, long length, boolean tailOpen, boolean hasContent) {
+        this.store = store;
+        this.chunks = chunks;
+        this.length = length;
+        this.tailOpen = tailOpen;
+        this.hasContent = hasContent;
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public boolean hasContent() {
+        return hasContent;
+    }
+
+    public int getChunkCount() {
+        return chunks.length;
+    }
+
+    // Writes the content's bytes to out straight from the shared chunks
+    public void writeTo(OutputStream out) throws IOException {
+        if (isReleased())
+            throw new IllegalStateException("snapshot was released");
+        for (ChunkStore.Chunk chunk : chunks) {
+            chunk.writeTo(out);
+        }
+    }
+
+    // Bytes of the chunks other doesn't reference, i.e. what this snapshot keeps alive
+    // beyond other. Equal chunks are interned to one instance, so identity is enough,
+    // and a chunk repeated within the content is stored and counted once.
+    public long bytesNotIn(ContentSnapshot other) {
+        Set<ChunkStore.Chunk> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(seen, other.chunks);
+        long bytes = 0;
+        for (ChunkStore.Chunk chunk : chunks) {
+            if (seen.add(chunk))
+                bytes += chunk.length();
+        }
+        return bytes;
+    }
+
+    // Drops the chunk references; the snapshot can't be restored afterwards
+    public synchronized void release() {
+        if (released)
+            return;
+        released = true;
+        for (ChunkStore.Chunk chunk : chunks) {
+            store.release(chunk);
+        }
+    }
+
+    synchronized boolean isReleased() {
+        return released;
+    }
+}
@@ -0,0 +1,90 @@
+package file_system.image;
+
+import file_system.content.ChunkStore;
+import file_system.node.Directory;
+import file_system.node.Node;
+import java.util.Collection;
+
+// Directory backed by a record in a mapped TreeImage. Its children are read from the
+// image the first time any child method is called, as lazy nodes themselves, so opening
+// a huge image only ever touches the parts of the tree that are actually visited.
+final class LazyDirectory extends Directory {
+    private final TreeImage.Layout layout;
+    private final long index;
+    private final ChunkStore chunkStore;
+    private volatile boolean loaded;
+
+    LazyDirectory(String name, TreeImage.Layout layout, long index, ChunkStore chunkStore) {
+        super(name);
+        this.layout = layout;
+        this.index = index;
+        this.chunkStore = chunkStore;
+    }
+
+    private void ensureLoaded() {
+        if (loaded)
+            return;
+        synchronized (this) {
+            if (loaded)
+                return;
+            long count = layout.childCount(index);
+            long first = layout.firstChild(index);
+            for (long child = first; child < first + count; child++) {
+                String name = layout.name(child);
+                Node node = layout.type(child) == TreeImage.FILE
+                        ? new LazyFile(name, layout, child, chunkStore)
+                        : new LazyDirectory(name, layout, child, chunkStore);
+                super.addChildIfAbsent(name, node);
+            }
+            loaded = true;
+        }
+    }
+
+    @Override
+    public void addChild(String name, Node child) {
+        ensureLoaded();
+        super.addChild(name, child);
+    }
+
+    @Override
+    public Node addChildIfAbsent(String name, Node child) {
+        ensureLoaded();
+        return super.addChildIfAbsent(name, child);
+    }
+
+    @Override
+    public boolean hasChild(String name) {
+        ensureLoaded();
+        return super.hasChild(name);
+    }
+
+    @Override
+    public Node getChild(String name) {
+        ensureLoaded();
+        return super.getChild(name);
+    }
+
+    @Override
+    public Node getChild(CharSequence name) {
+        ensureLoaded();
+        return super.getChild(name);
+    }
+
+    @Override
+    public boolean removeChild(String name) {
+        ensureLoaded();
+        return super.removeChild(name);
+    }
+
+    @Override
+    public boolean removeChild(CharSequence name) {
+        ensureLoaded();
+        return super.removeChild(name);
+    }
+
+    @Override
+    public Collection<Node> getChildren() {
+        ensureLoaded();
+        return super.getChildren();
+    }
+}
@@ -0,0 +1,137 @@
+package file_system.image;
+
+import file_system.content.ChunkStore;
+import file_system.content.ContentSnapshot;
+import file_system.node.File;
+import java.nio.charset.StandardCharsets;
+
+// File backed by a record in a mapped TreeImage. Reads are served straight from the
+// mapping; the bytes are copied into the chunk store only when the file is first
+// changed, so files that are only read never take heap.
+final class LazyFile extends File {
+    private final TreeImage.Layout layout;
+    private final long contentOffset;
+    private final long contentLength;
+    private final boolean imageHasContent;
+    // Set once the content lives in the chunk store; from then on File handles everything
+    private volatile boolean materialized;
+
+    LazyFile(String name, TreeImage.Layout layout, long index, ChunkStore chunkStore) {
+        super(name, chunkStore);
+        this.layout = layout;
+        this.contentLength = layout.contentLength(index);
+        this.contentOffset = layout.contentOffset(index);
+        this.imageHasContent = (layout.flags(index) & TreeImage.FLAG_HAS_CONTENT) != 0;
+    }
+
+    // Copies the image bytes into the chunk store before the first change; release()
+    // drops them anyway and skips the copy
+    private void materialize(boolean keepContent) {
+        if (materialized)
+            return;
+        synchronized (this) {
+            if (materialized)
+                return;
+            if (keepContent) {
+                if (imageHasContent && contentLength == 0)
+                    super.setContent("");
+                byte[] buffer = new byte[(int) Math.min(contentLength, 64 * 1024)];
+                for (long position = 0; position < contentLength;) {
+                    int n = (int) Math.min(buffer.length, contentLength - position);
+                    layout.image.get(contentOffset + position, buffer, 0, n);
+                    super.append(buffer, 0, n);
+                    position += n;
+                }
+            }
+            materialized = true;
+        }
+    }
+
+    @Override
+    public String getContent() {
+        if (materialized)
+            return super.getContent();
+        if (!imageHasContent)
+            return null;
+        if (contentLength > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("content too large for one string: " + contentLength + " bytes");
+        return layout.image.getString(contentOffset, (int) contentLength);
+    }
+
+    @Override
+    public int read(long position, byte[] dst, int off, int len) {
+        if (materialized)
+            return super.read(position, dst, off, len);
+        if (position < 0)
+            throw new IllegalArgumentException("position must not be negative: " + position);
+        if (position >= contentLength)
+            return len == 0 ? 0 : -1;
+        int n = (int) Math.min(len, contentLength - position);
+        layout.image.get(contentOffset + position, dst, off, n);
+        return n;
+    }
+
+    @Override
+    public byte[] read(long position, int len) {
+        if (materialized)
+            return super.read(position, len);
+        byte[] bytes = new byte[(int) Math.max(0, Math.min(len, contentLength - position))];
+        read(position, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    @Override
+    public long size() {
+        return materialized ? super.size() : contentLength;
+    }
+
+    @Override
+    public boolean hasContent() {
+        return materialized ? super.hasContent() : imageHasContent;
+    }
+
+    @Override
+    public boolean setContent(String content) {
+        if (!materialized) {
+            synchronized (this) {
+                if (!materialized) {
+                    // Readers keep seeing the image until the new content is in place
+                    boolean set = super.setContent(content);
+                    materialized = true;
+                    return set;
+                }
+            }
+        }
+        return super.setContent(content);
+    }
+
+    @Override
+    public boolean append(byte[] src, int off, int len) {
+        materialize(true);
+        return super.append(src, off, len);
+    }
+
+    @Override
+    public boolean truncate(long length) {
+        materialize(true);
+        return super.truncate(length);
+    }
+
+    @Override
+    public ContentSnapshot captureContent() {
+        materialize(true);
+        return super.captureContent();
+    }
+
+    @Override
+    public boolean restoreContent(ContentSnapshot snapshot) {
+        materialize(false);
+        return super.restoreContent(snapshot);
+    }
+
+    @Override
+    public void release() {
+        materialize(false);
+        super.release();
+    }
+}
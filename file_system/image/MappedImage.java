@@ -0,0 +1,73 @@
+package file_system.image;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// A read-only file mapped into memory, addressed with long offsets.
+//
+// One MappedByteBuffer can span at most 2 GB, so the file is mapped as 1 GB segments.
+// Each segment overlaps the next by a few bytes, so an int or long never straddles two
+// segments; only bulk copies have to walk across boundaries. Mapping is lazy in the OS:
+// opening costs nothing per byte, pages are read on first touch.
+final class MappedImage {
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final int OVERLAP = 8;
+
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    MappedImage(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            int count = (int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            segments = new MappedByteBuffer[Math.max(count, 1)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = i * SEGMENT_SIZE;
+                long length = Math.min(SEGMENT_SIZE + OVERLAP, size - start);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(length, 0));
+                segments[i].order(ByteOrder.BIG_ENDIAN);
+            }
+            // The mapping stays valid after the channel is closed
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    int getInt(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].getInt((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    long getLong(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].getLong((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    byte get(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    void get(long position, byte[] dst, int off, int len) {
+        while (len > 0) {
+            int segment = (int) (position >>> SEGMENT_BITS);
+            int inSegment = (int) (position & (SEGMENT_SIZE - 1));
+            int n = (int) Math.min(len, SEGMENT_SIZE - inSegment);
+            segments[segment].get(inSegment, dst, off, n);
+            position += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    String getString(long position, int length) {
+        byte[] bytes = new byte[length];
+        get(position, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,298 @@
+package file_system.image;
+
+import file_system.content.ChunkStore;
+import file_system.manager.FileSystem;
+import file_system.node.File;
+import file_system.node.Node;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Compact on-disk image of a whole tree, opened with FileChannel.map so nothing is read
+// until it is used.
+//
+// header   magic(int) version(int) nodeCount(long) nodeTable(long) stringTable(long)
+//          contentRegion(long) imageSize(long), padded to HEADER_SIZE
+// nodes    nodeCount fixed-width records, root first, in breadth-first order so every
+//          directory's children are consecutive:
+//            nameOffset(long) nameLength(int) type(byte) flags(byte) pad(short)
+//            DIRECTORY: firstChild(long) childCount(long)
+//            FILE:      contentOffset(long) contentLength(long)
+// strings  UTF-8 names back to back, addressed by nameOffset
+// content  file bytes back to back, addressed by contentOffset
+//
+// Record i lives at nodeTable + i * NODE_SIZE, so any node is one multiplication away.
+// open() reads the header only; directories list their children and files read their
+// bytes on first access (see LazyDirectory and LazyFile). Every offset is checked against
+// its region as it is read, so a damaged image fails with a description of the bad
+// record instead of reading another region or past the mapping.
+public final class TreeImage {
+    static final int MAGIC = 0x46534947; // "FSIG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int NODE_SIZE = 32;
+
+    static final byte DIRECTORY = 0;
+    static final byte FILE = 1;
+    static final byte FLAG_HAS_CONTENT = 1;
+
+    private static final int CACHE_CAPACITY = 10_000;
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+
+    private TreeImage() {
+    }
+
+    // Opens an image as a FileSystem. Only the header is read here; changes made
+    // afterwards live in memory and never modify the image.
+    public static FileSystem open(Path image) throws IOException {
+        MappedImage mapped = new MappedImage(image);
+        if (mapped.size() < HEADER_SIZE || mapped.getInt(0) != MAGIC)
+            throw new IOException("not a file system image: " + image);
+        int version = mapped.getInt(4);
+        if (version != VERSION)
+            throw new IOException("unsupported image version " + version + ": " + image);
+        if (mapped.getLong(40) != mapped.size())
+            throw new IOException("truncated image, expected " + mapped.getLong(40) + " bytes: " + image);
+        long nodeCount = mapped.getLong(8);
+        long nodeTable = mapped.getLong(16);
+        long stringTable = mapped.getLong(24);
+        long contentRegion = mapped.getLong(32);
+        // Regions in order, none overlapping the header or each other, all inside the file
+        if (nodeTable < HEADER_SIZE || stringTable < nodeTable || contentRegion < stringTable
+                || contentRegion > mapped.size())
+            throw new IOException("corrupt image: regions at " + nodeTable + ", " + stringTable + ", "
+                    + contentRegion + " don't fit " + mapped.size() + " bytes: " + image);
+        if (nodeCount < 1 || nodeCount > (stringTable - nodeTable) / NODE_SIZE)
+            throw new IOException("corrupt image: " + nodeCount + " nodes don't fit the node table: " + image);
+        Layout layout = new Layout(image, mapped, nodeCount, nodeTable, stringTable, contentRegion);
+        if (layout.type(0) != DIRECTORY)
+            throw new IOException("corrupt image: root is not a directory: " + image);
+        ChunkStore chunkStore = new ChunkStore();
+        return new FileSystem(new LazyDirectory("/", layout, 0, chunkStore), chunkStore, CACHE_CAPACITY);
+    }
+
+    // Writes the tree to image via a temporary file and a rename. The tree must not
+    // change while this runs.
+    public static void write(FileSystem fileSystem, Path image) throws IOException {
+        Node root = fileSystem.getRoot();
+        // First pass: sizes of the three regions
+        long nodeCount = 0;
+        long stringBytes = 0;
+        long contentBytes = 0;
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.poll();
+            nodeCount++;
+            stringBytes += node.getName().getBytes(StandardCharsets.UTF_8).length;
+            if (node.isFile())
+                contentBytes += ((File) node).size();
+            else
+                pending.addAll(node.getChildren());
+        }
+        long nodeTable = HEADER_SIZE;
+        long stringTable = nodeTable + nodeCount * NODE_SIZE;
+        long contentRegion = stringTable + stringBytes;
+        long imageSize = contentRegion + contentBytes;
+
+        Path temp = image.resolveSibling(image.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(nodeCount).putLong(nodeTable)
+                    .putLong(stringTable).putLong(contentRegion).putLong(imageSize);
+            header.clear();
+            channel.write(header, 0);
+
+            RegionWriter nodes = new RegionWriter(channel, nodeTable);
+            RegionWriter strings = new RegionWriter(channel, stringTable);
+            RegionWriter content = new RegionWriter(channel, contentRegion);
+            byte[] copyBuffer = new byte[WRITE_BUFFER_SIZE];
+            // Second pass, same breadth-first order: children of the k-th directory get
+            // the next free indices, so they end up consecutive
+            long nextIndex = 1;
+            pending.add(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.poll();
+                byte[] name = node.getName().getBytes(StandardCharsets.UTF_8);
+                nodes.putLong(strings.offset()).putInt(name.length);
+                strings.put(name, 0, name.length);
+                if (node.isFile()) {
+                    File file = (File) node;
+                    long size = file.size();
+                    nodes.put(FILE).put(file.hasContent() ? FLAG_HAS_CONTENT : 0).putShort((short) 0);
+                    nodes.putLong(content.offset()).putLong(size);
+                    for (long position = 0; position < size;) {
+                        int n = file.read(position, copyBuffer, 0, (int) Math.min(copyBuffer.length, size - position));
+                        content.put(copyBuffer, 0, n);
+                        position += n;
+                    }
+                } else {
+                    int before = pending.size();
+                    pending.addAll(node.getChildren());
+                    long childCount = pending.size() - before;
+                    nodes.put(DIRECTORY).put((byte) 0).putShort((short) 0);
+                    nodes.putLong(nextIndex).putLong(childCount);
+                    nextIndex += childCount;
+                }
+            }
+            nodes.flush();
+            strings.flush();
+            content.flush();
+            channel.force(true);
+        }
+        Files.move(temp, image, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Offsets of the regions inside one mapped image; shared by all its lazy nodes.
+    // Accessors check what they read and throw IllegalStateException naming the record
+    // when it points outside its region; open() has already checked the regions.
+    static final class Layout {
+        final Path path;
+        final MappedImage image;
+        final long nodeCount;
+        final long nodeTable;
+        final long stringTable;
+        final long contentRegion;
+
+        Layout(Path path, MappedImage image, long nodeCount, long nodeTable, long stringTable, long contentRegion) {
+            this.path = path;
+            this.image = image;
+            this.nodeCount = nodeCount;
+            this.nodeTable = nodeTable;
+            this.stringTable = stringTable;
+            this.contentRegion = contentRegion;
+        }
+
+        long record(long index) {
+            if (index < 0 || index >= nodeCount)
+                throw new IllegalStateException("corrupt image " + path + ": node " + index
+                        + " is outside the node table of " + nodeCount);
+            return nodeTable + index * NODE_SIZE;
+        }
+
+        String name(long index) {
+            long record = record(index);
+            long offset = image.getLong(record);
+            int length = image.getInt(record + 8);
+            if (offset < 0 || length < 0 || offset > contentRegion - stringTable - length)
+                throw corrupt(index, "name at " + offset + " (" + length + " bytes) is outside the string table");
+            return image.getString(stringTable + offset, length);
+        }
+
+        byte type(long index) {
+            byte type = image.get(record(index) + 12);
+            if (type != DIRECTORY && type != FILE)
+                throw corrupt(index, "unknown node type " + type);
+            return type;
+        }
+
+        byte flags(long index) {
+            return image.get(record(index) + 13);
+        }
+
+        long firstChild(long index) {
+            return image.getLong(record(index) + 16);
+        }
+
+        // Children come after their directory in breadth-first order, so a range that
+        // doesn't is corrupt and could otherwise loop back to an ancestor
+        long childCount(long index) {
+            long first = firstChild(index);
+            long count = image.getLong(record(index) + 24);
+            if (count < 0 || (count > 0 && (first <= index || first > nodeCount - count)))
+                throw corrupt(index, count + " children from node " + first + " are outside the node table");
+            return count;
+        }
+
+        // Absolute position of the file's bytes in the image
+        long contentOffset(long index) {
+            return contentRegion + image.getLong(record(index) + 16);
+        }
+
+        long contentLength(long index) {
+            long offset = image.getLong(record(index) + 16);
+            long length = image.getLong(record(index) + 24);
+            if (offset < 0 || length < 0 || offset > image.size() - contentRegion - length)
+                throw corrupt(index, "content at " + offset + " (" + length + " bytes) is outside the content region");
+            return length;
+        }
+
+        private IllegalStateException corrupt(long index, String problem) {
+            return new IllegalStateException("corrupt image " + path + ": node " + index + ": " + problem);
+        }
+    }
+
+    // Buffered sequential writes into one region of the file
+    private static final class RegionWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        private final long start;
+        private long flushedTo;
+
+        RegionWriter(FileChannel channel, long start) {
+            this.channel = channel;
+            this.start = start;
+            this.flushedTo = start;
+        }
+
+        // Bytes written to this region so far
+        long offset() {
+            return flushedTo - start + buffer.position();
+        }
+
+        RegionWriter put(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+            return this;
+        }
+
+        RegionWriter putShort(short value) throws IOException {
+            ensure(2);
+            buffer.putShort(value);
+            return this;
+        }
+
+        RegionWriter putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+            return this;
+        }
+
+        RegionWriter putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+            return this;
+        }
+
+        void put(byte[] src, int off, int len) throws IOException {
+            while (len > 0) {
+                ensure(1);
+                int n = Math.min(len, buffer.remaining());
+                buffer.put(src, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                flushedTo += channel.write(buffer, flushedTo);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes)
+                flush();
+        }
+    }
+}
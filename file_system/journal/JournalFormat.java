@@ -0,0 +1,67 @@
+package file_system.journal;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// On-disk layout shared by JournalWriter, JournalReader and TreeSnapshot.
+//
+// journal-<first sequence>.log  records: [int length][int crc32][long sequence][byte op][payload]
+//                               length and crc32 cover sequence, op and payload
+//   CREATE / DELETE  path(string)
+//   WRITE            path(string) hasContent(byte) [bytes]
+//   APPEND           path(string) bytes
+//   TRUNCATE         path(string) length(long)
+// snapshot-<sequence>.snap      tree as of that sequence (see TreeSnapshot)
+//
+// Strings are an int byte length followed by UTF-8 bytes, bytes an int length followed
+// by the raw bytes. A record that is cut short or fails its checksum marks the end of
+// the journal: it was being written when the process died.
+final class JournalFormat {
+    static final String JOURNAL_PREFIX = "journal-";
+    static final String JOURNAL_SUFFIX = ".log";
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".snap";
+
+    static final int RECORD_HEADER_SIZE = 4 + 4;
+    // Largest record body. The reader treats anything larger as corruption rather than
+    // allocating it, so the writer refuses to produce one.
+    static final int MAX_RECORD_SIZE = 256 * 1024 * 1024;
+
+    static final byte CREATE = 1;
+    static final byte DELETE = 2;
+    static final byte WRITE = 3;
+    static final byte APPEND = 4;
+    static final byte TRUNCATE = 5;
+
+    private JournalFormat() {
+    }
+
+    static Path journalPath(Path directory, long firstSequence) {
+        return directory.resolve(JOURNAL_PREFIX + String.format("%020d", firstSequence) + JOURNAL_SUFFIX);
+    }
+
+    static Path snapshotPath(Path directory, long sequence) {
+        return directory.resolve(SNAPSHOT_PREFIX + String.format("%020d", sequence) + SNAPSHOT_SUFFIX);
+    }
+
+    // Makes created, renamed and deleted entries in directory durable
+    static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    // Sequence number embedded in a journal or snapshot file name, or -1 for other files
+    static long sequenceOf(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(prefix) || !name.endsWith(suffix))
+            return -1;
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package file_system.journal;
+
+import file_system.manager.FileSystem;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Replays journal segments onto a FileSystem during recovery
+final class JournalReader {
+    private JournalReader() {
+    }
+
+    // Applies the records of segment numbered above afterSequence, in order, and returns
+    // the last sequence number seen (afterSequence if none). A torn or corrupt record
+    // ends the journal: the segment is cut back to the last good record, and isTorn
+    // tells the caller to ignore any later segments.
+    static Result replay(Path segment, long afterSequence, FileSystem fileSystem) throws IOException {
+        long lastSequence = afterSequence;
+        long validLength = 0;
+        boolean torn = false;
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024));
+            long size = channel.size();
+            while (validLength < size) {
+                byte[] body;
+                int expectedCrc;
+                try {
+                    int bodySize = in.readInt();
+                    expectedCrc = in.readInt();
+                    if (bodySize <= 0 || bodySize > JournalFormat.MAX_RECORD_SIZE
+                            || validLength + JournalFormat.RECORD_HEADER_SIZE + bodySize > size) {
+                        torn = true;
+                        break;
+                    }
+                    body = new byte[bodySize];
+                    in.readFully(body);
+                } catch (EOFException e) {
+                    torn = true;
+                    break;
+                }
+                crc.reset();
+                crc.update(body);
+                if ((int) crc.getValue() != expectedCrc) {
+                    torn = true;
+                    break;
+                }
+                long sequence = apply(ByteBuffer.wrap(body), afterSequence, fileSystem);
+                lastSequence = Math.max(lastSequence, sequence);
+                validLength += JournalFormat.RECORD_HEADER_SIZE + body.length;
+            }
+            if (torn)
+                channel.truncate(validLength);
+        }
+        return new Result(lastSequence, torn);
+    }
+
+    static final class Result {
+        final long lastSequence;
+        final boolean torn;
+
+        Result(long lastSequence, boolean torn) {
+            this.lastSequence = lastSequence;
+            this.torn = torn;
+        }
+    }
+
+    private static long apply(ByteBuffer body, long afterSequence, FileSystem fileSystem) {
+        long sequence = body.getLong();
+        // Already contained in the snapshot replay started from
+        if (sequence <= afterSequence)
+            return sequence;
+        byte op = body.get();
+        byte[] pathBytes = new byte[body.getInt()];
+        body.get(pathBytes);
+        String path = new String(pathBytes, StandardCharsets.UTF_8);
+        switch (op) {
+            case JournalFormat.CREATE:
+                fileSystem.createPath(path);
+                break;
+            case JournalFormat.DELETE:
+                fileSystem.deletePath(path);
+                break;
+            case JournalFormat.WRITE:
+                String content = null;
+                if (body.get() != 0) {
+                    byte[] bytes = new byte[body.getInt()];
+                    body.get(bytes);
+                    content = new String(bytes, StandardCharsets.UTF_8);
+                }
+                fileSystem.setFileContent(path, content);
+                break;
+            case JournalFormat.APPEND:
+                byte[] bytes = new byte[body.getInt()];
+                body.get(bytes);
+                fileSystem.appendFile(path, bytes);
+                break;
+            case JournalFormat.TRUNCATE:
+                fileSystem.truncateFile(path, body.getLong());
+                break;
+            default:
+                throw new IllegalStateException("unknown journal op " + op + " in record " + sequence);
+        }
+        return sequence;
+    }
+}
@@ -0,0 +1,238 @@
+package file_system.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+// Appends records to the current journal segment with group commit.
+//
+// append() only encodes into an in-memory batch. awaitDurable() then makes the caller's
+// record durable: the first waiter becomes the leader, takes the whole batch, writes it
+// and fsyncs once, while records appended meanwhile collect in the next batch. Under
+// load one fsync covers many commits instead of one each.
+//
+// A failed write or fsync leaves the segment in an unknown state, so the writer then
+// refuses everything: it can't tell which records reached the disk.
+//
+// Lock order: bufferLock is innermost; flushLock may be held while taking it.
+final class JournalWriter implements Closeable {
+    private final Path directory;
+    // Guards pending and lastSequence
+    private final ReentrantLock bufferLock = new ReentrantLock();
+    // Held by the leader writing a batch, and while switching segments
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final CRC32 crc = new CRC32();
+
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    // Batch being written by the leader, swapped with pending
+    private ByteBuffer writing = ByteBuffer.allocate(64 * 1024);
+    private long lastSequence;
+    private volatile long durableSequence;
+    // First write or fsync error; set once, never cleared
+    private volatile IOException failure;
+
+    private FileChannel channel;
+    private long segmentFirstSequence;
+
+    JournalWriter(Path directory, long lastSequence) throws IOException {
+        this.directory = directory;
+        this.lastSequence = lastSequence;
+        this.durableSequence = lastSequence;
+        openSegment(lastSequence + 1);
+    }
+
+    // Whether append would take this record. Callers check before applying the change,
+    // since a record the reader would reject as corrupt must not be written at all.
+    // Throws if an earlier write failed.
+    boolean canAppend(byte op, String path, byte[] data) throws IOException {
+        IOException failed = failure;
+        if (failed != null)
+            throw new IOException("journal unavailable after an earlier write failure", failed);
+        if (path == null || (op == JournalFormat.APPEND && data == null))
+            return false;
+        return bodySize(op, path.getBytes(StandardCharsets.UTF_8), data) <= JournalFormat.MAX_RECORD_SIZE;
+    }
+
+    // Encodes a record and returns its sequence number; not durable until awaitDurable.
+    // Callers serialize appends with the changes they describe, so sequence order is
+    // the order the changes were applied in.
+    long append(byte op, String path, byte[] data, long number) {
+        byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+        long size = bodySize(op, pathBytes, data);
+        if (size > JournalFormat.MAX_RECORD_SIZE)
+            throw new IllegalArgumentException("journal record too large: " + size + " bytes for " + path);
+        int bodySize = (int) size;
+
+        bufferLock.lock();
+        try {
+            if (failure != null)
+                throw new IllegalStateException("journal unavailable after an earlier write failure", failure);
+            long sequence = ++lastSequence;
+            ensureCapacity(JournalFormat.RECORD_HEADER_SIZE + bodySize);
+            int start = pending.position();
+            pending.putInt(bodySize).putInt(0);
+            int bodyStart = pending.position();
+            pending.putLong(sequence).put(op).putInt(pathBytes.length).put(pathBytes);
+            if (op == JournalFormat.WRITE) {
+                pending.put((byte) (data != null ? 1 : 0));
+                if (data != null)
+                    pending.putInt(data.length).put(data);
+            } else if (op == JournalFormat.APPEND) {
+                pending.putInt(data.length).put(data);
+            } else if (op == JournalFormat.TRUNCATE) {
+                pending.putLong(number);
+            }
+            crc.reset();
+            crc.update(pending.array(), bodyStart, bodySize);
+            pending.putInt(start + 4, (int) crc.getValue());
+            return sequence;
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    // Returns once the record with this sequence number is on disk
+    void awaitDurable(long sequence) throws IOException {
+        if (durableSequence >= sequence)
+            return;
+        IOException failed = failure;
+        if (failed != null)
+            throw new IOException("journal unavailable after an earlier write failure", failed);
+        flushLock.lock();
+        try {
+            // The previous leader's batch may already have covered this record
+            if (durableSequence < sequence)
+                writeBatch();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Makes everything appended so far durable
+    void flush() throws IOException {
+        flushLock.lock();
+        try {
+            writeBatch();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    long getLastSequence() {
+        bufferLock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    long getSegmentFirstSequence() {
+        return segmentFirstSequence;
+    }
+
+    // Flushes and continues in a new segment starting at nextSequence. Records before
+    // it stay in the old segments until the caller deletes them.
+    void rotate(long nextSequence) throws IOException {
+        flushLock.lock();
+        try {
+            writeBatch();
+            if (nextSequence == segmentFirstSequence)
+                return;
+            try {
+                channel.close();
+                openSegment(nextSequence);
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushLock.lock();
+        try {
+            // After a failure nothing more is written, but the channel is still released
+            try {
+                if (failure == null)
+                    writeBatch();
+            } finally {
+                channel.close();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Caller holds flushLock
+    private void writeBatch() throws IOException {
+        IOException failed = failure;
+        if (failed != null)
+            throw new IOException("journal unavailable after an earlier write failure", failed);
+        ByteBuffer batch;
+        long batchSequence;
+        bufferLock.lock();
+        try {
+            if (pending.position() == 0)
+                return;
+            batch = pending;
+            pending = writing;
+            writing = batch;
+            batchSequence = lastSequence;
+        } finally {
+            bufferLock.unlock();
+        }
+        batch.flip();
+        try {
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Part of the batch may be on disk; stop before anything is appended after it.
+            // The batch is left as it is, it will never be written again.
+            failure = e;
+            throw e;
+        }
+        batch.clear();
+        durableSequence = batchSequence;
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        channel = FileChannel.open(JournalFormat.journalPath(directory, firstSequence),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentFirstSequence = firstSequence;
+        // The new segment's directory entry must be durable before older files are deleted
+        JournalFormat.syncDirectory(directory);
+    }
+
+    private static long bodySize(byte op, byte[] pathBytes, byte[] data) {
+        long bodySize = 8 + 1 + 4 + pathBytes.length;
+        if (op == JournalFormat.WRITE)
+            bodySize += 1 + (data != null ? 4 + data.length : 0);
+        else if (op == JournalFormat.APPEND)
+            bodySize += 4 + data.length;
+        else if (op == JournalFormat.TRUNCATE)
+            bodySize += 8;
+        return bodySize;
+    }
+
+    // Caller holds bufferLock
+    private void ensureCapacity(int needed) {
+        if (pending.remaining() >= needed)
+            return;
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + needed));
+        pending.flip();
+        grown.put(pending);
+        pending = grown;
+    }
+}
@@ -0,0 +1,306 @@
+package file_system.journal;
+
+import file_system.manager.FileSystem;
+import file_system.manager.FileSystemOperations;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// A FileSystem whose changes survive restarts.
+//
+// Every change is appended to a write-ahead journal, then applied in memory, and
+// acknowledged only once the journal record is on disk; concurrent changes share fsyncs
+// (group commit, see JournalWriter). Every snapshotInterval records the whole tree is
+// written to a snapshot and older journal segments are deleted, so recovery loads the
+// newest snapshot and replays only the records after it: startup time is bounded by
+// the snapshot size, not by how long the history is. The snapshot before the newest is
+// kept with the journal since it, so an unreadable newest snapshot can still be recovered.
+//
+// Changes are serialized with their journal append so the journal order is the apply
+// order; only the append and the in-memory apply run under that lock, never the fsync.
+// A record is appended before its change is applied, so a change the journal refuses
+// never reaches memory. A change that then fails in memory (say, creating a path that
+// exists) leaves a record that fails the same way on replay. Reads go straight to the
+// in-memory tree. All changes must go through this class.
+public class JournaledFileSystem implements FileSystemOperations, Closeable {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 100_000;
+
+    private static final int CACHE_CAPACITY = 10_000;
+
+    private final Path directory;
+    private final FileSystem fileSystem;
+    private final JournalWriter journal;
+    private final int snapshotInterval;
+    // Orders changes with their journal records; also held while a snapshot is captured
+    private final ReentrantLock applyLock = new ReentrantLock();
+    // One snapshot at a time, from capture until older files are deleted
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private long recordsSinceSnapshot;
+
+    private JournaledFileSystem(Path directory, FileSystem fileSystem, long lastSequence, int snapshotInterval)
+            throws IOException {
+        this.directory = directory;
+        this.fileSystem = fileSystem;
+        this.journal = new JournalWriter(directory, lastSequence);
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public static JournaledFileSystem open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    // Recovers the tree stored in directory, or starts an empty one. Throws if the
+    // snapshots and journal left there can't rebuild the tree without a gap.
+    public static JournaledFileSystem open(Path directory, int snapshotInterval) throws IOException {
+        if (snapshotInterval <= 0)
+            throw new IllegalArgumentException("snapshotInterval must be positive: " + snapshotInterval);
+        Files.createDirectories(directory);
+        // Left behind by a snapshot that was interrupted before its rename
+        try (Stream<Path> entries = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) entries::iterator) {
+                if (file.getFileName().toString().endsWith(JournalFormat.SNAPSHOT_SUFFIX + ".tmp"))
+                    Files.deleteIfExists(file);
+            }
+        }
+        FileSystem fileSystem = null;
+        long sequence = 0;
+        // Newest snapshot that loads; an unreadable one falls back to the one before it
+        List<Path> snapshots = list(directory, JournalFormat.SNAPSHOT_PREFIX, JournalFormat.SNAPSHOT_SUFFIX);
+        for (int i = snapshots.size() - 1; i >= 0 && fileSystem == null; i--) {
+            try {
+                TreeSnapshot.Loaded loaded = TreeSnapshot.read(snapshots.get(i), CACHE_CAPACITY);
+                fileSystem = loaded.fileSystem;
+                sequence = loaded.sequence;
+            } catch (IOException e) {
+                System.err.println("Skipping unreadable snapshot " + snapshots.get(i) + ": " + e.getMessage());
+            }
+        }
+        boolean fromSnapshot = fileSystem != null;
+        if (!fromSnapshot)
+            fileSystem = new FileSystem(CACHE_CAPACITY);
+        List<Path> segments = list(directory, JournalFormat.JOURNAL_PREFIX, JournalFormat.JOURNAL_SUFFIX);
+        // The journal must continue right where the loaded state ends. It doesn't when
+        // every snapshot it was trimmed for is unreadable, and starting from what loaded
+        // would silently lose everything in between.
+        long firstJournaled = segments.isEmpty() ? sequence + 1
+                : JournalFormat.sequenceOf(segments.get(0), JournalFormat.JOURNAL_PREFIX, JournalFormat.JOURNAL_SUFFIX);
+        if (firstJournaled > sequence + 1 || (segments.isEmpty() && !snapshots.isEmpty() && !fromSnapshot))
+            throw new IOException("cannot recover " + directory + ": records after " + sequence
+                    + " are missing from the journal");
+        for (Path segment : segments) {
+            JournalReader.Result result = JournalReader.replay(segment, sequence, fileSystem);
+            sequence = result.lastSequence;
+            if (result.torn)
+                break;
+        }
+        return new JournaledFileSystem(directory, fileSystem, sequence, snapshotInterval);
+    }
+
+    @Override
+    public boolean createPath(String path) {
+        applyLock.lock();
+        long sequence;
+        try {
+            if (!canJournal(JournalFormat.CREATE, path, null))
+                return false;
+            sequence = journal.append(JournalFormat.CREATE, path, null, 0);
+            if (!fileSystem.createPath(path))
+                return false;
+        } finally {
+            applyLock.unlock();
+        }
+        return commit(sequence);
+    }
+
+    @Override
+    public boolean deletePath(String path) {
+        applyLock.lock();
+        long sequence;
+        try {
+            if (!canJournal(JournalFormat.DELETE, path, null))
+                return false;
+            sequence = journal.append(JournalFormat.DELETE, path, null, 0);
+            if (!fileSystem.deletePath(path))
+                return false;
+        } finally {
+            applyLock.unlock();
+        }
+        return commit(sequence);
+    }
+
+    @Override
+    public boolean setFileContent(String path, String content) {
+        byte[] bytes = content != null ? content.getBytes(StandardCharsets.UTF_8) : null;
+        applyLock.lock();
+        long sequence;
+        try {
+            if (!canJournal(JournalFormat.WRITE, path, bytes))
+                return false;
+            sequence = journal.append(JournalFormat.WRITE, path, bytes, 0);
+            if (!fileSystem.setFileContent(path, content))
+                return false;
+        } finally {
+            applyLock.unlock();
+        }
+        return commit(sequence);
+    }
+
+    public boolean appendFile(String path, byte[] data) {
+        applyLock.lock();
+        long sequence;
+        try {
+            if (!canJournal(JournalFormat.APPEND, path, data))
+                return false;
+            sequence = journal.append(JournalFormat.APPEND, path, data, 0);
+            if (!fileSystem.appendFile(path, data))
+                return false;
+        } finally {
+            applyLock.unlock();
+        }
+        return commit(sequence);
+    }
+
+    public boolean truncateFile(String path, long length) {
+        applyLock.lock();
+        long sequence;
+        try {
+            if (!canJournal(JournalFormat.TRUNCATE, path, null))
+                return false;
+            sequence = journal.append(JournalFormat.TRUNCATE, path, null, length);
+            if (!fileSystem.truncateFile(path, length))
+                return false;
+        } finally {
+            applyLock.unlock();
+        }
+        return commit(sequence);
+    }
+
+    @Override
+    public String getFileContent(String path) {
+        return fileSystem.getFileContent(path);
+    }
+
+    @Override
+    public void display() {
+        fileSystem.display();
+    }
+
+    // The in-memory tree, for reads; changes made through it directly are not journaled
+    public FileSystem getFileSystem() {
+        return fileSystem;
+    }
+
+    // Sequence number of the last change applied
+    public long getLastSequence() {
+        return journal.getLastSequence();
+    }
+
+    // Writes a snapshot of the current tree and deletes the journal it replaces.
+    // Changes wait only while the tree is captured, which shares file content instead of
+    // copying it; the snapshot is written and fsynced while they continue.
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            long sequence;
+            TreeSnapshot.Captured tree;
+            applyLock.lock();
+            try {
+                // Records up to sequence are in the snapshot; later ones go to a new segment
+                sequence = journal.getLastSequence();
+                journal.rotate(sequence + 1);
+                tree = TreeSnapshot.capture(fileSystem);
+                recordsSinceSnapshot = 0;
+            } finally {
+                applyLock.unlock();
+            }
+            Path written;
+            try {
+                written = TreeSnapshot.write(tree, sequence, directory);
+            } finally {
+                tree.release();
+            }
+            // Keep the previous snapshot and the journal after it as a fallback in case the
+            // new one turns out unreadable; anything older is no longer needed
+            List<Path> older = list(directory, JournalFormat.SNAPSHOT_PREFIX, JournalFormat.SNAPSHOT_SUFFIX);
+            older.remove(written);
+            if (older.isEmpty())
+                return;
+            Path previous = older.remove(older.size() - 1);
+            long previousSequence = JournalFormat.sequenceOf(previous, JournalFormat.SNAPSHOT_PREFIX,
+                    JournalFormat.SNAPSHOT_SUFFIX);
+            for (Path old : older) {
+                Files.deleteIfExists(old);
+            }
+            // Segments are rotated at every snapshot, so one starting at or before
+            // previousSequence holds nothing after it
+            for (Path old : list(directory, JournalFormat.JOURNAL_PREFIX, JournalFormat.JOURNAL_SUFFIX)) {
+                if (JournalFormat.sequenceOf(old, JournalFormat.JOURNAL_PREFIX,
+                        JournalFormat.JOURNAL_SUFFIX) <= previousSequence)
+                    Files.deleteIfExists(old);
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        applyLock.lock();
+        try {
+            journal.close();
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    // Checked under applyLock before the record is appended, so a record the journal
+    // would reject is neither written nor applied
+    private boolean canJournal(byte op, String path, byte[] data) {
+        if (!fileSystem.isValidFilePath(path))
+            return false;
+        try {
+            return journal.canAppend(op, path, data);
+        } catch (IOException e) {
+            throw new UncheckedIOException("journal unavailable", e);
+        }
+    }
+
+    // Waits for the record to be durable, then snapshots if one is due
+    private boolean commit(long sequence) {
+        try {
+            journal.awaitDurable(sequence);
+            if (snapshotDue())
+                snapshot();
+        } catch (IOException e) {
+            throw new UncheckedIOException("journal write failed for record " + sequence, e);
+        }
+        return true;
+    }
+
+    private boolean snapshotDue() {
+        applyLock.lock();
+        try {
+            return ++recordsSinceSnapshot >= snapshotInterval;
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    // Files with prefix/suffix in directory, ordered by their sequence number
+    private static List<Path> list(Path directory, String prefix, String suffix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> entries = Files.list(directory)) {
+            entries.filter(file -> JournalFormat.sequenceOf(file, prefix, suffix) >= 0).forEach(files::add);
+        }
+        files.sort(Comparator.comparingLong(file -> JournalFormat.sequenceOf(file, prefix, suffix)));
+        return files;
+    }
+}
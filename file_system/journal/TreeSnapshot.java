@@ -0,0 +1,247 @@
+package file_system.journal;
+
+import file_system.content.ChunkStore;
+import file_system.content.ContentSnapshot;
+import file_system.manager.FileSystem;
+import file_system.node.Directory;
+import file_system.node.File;
+import file_system.node.Node;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Whole-tree snapshot: everything the journal up to a sequence number describes.
+//
+// magic(int) version(byte) sequence(long) rootChildCount(int) entry* crc(int)
+//   entry = type(byte) name  then  DIRECTORY: childCount(int) entry*
+//                                  FILE:      hasContent(byte) length(long) bytes
+//   name  = length(int) UTF-8 bytes
+// The CRC32 covers everything before it, so a damaged snapshot fails to load and
+// recovery falls back to the previous one. Version 1 had writeUTF names, which can't
+// exceed 65535 bytes, and no CRC; it is still read.
+//
+// Entries are in depth-first order, each directory's children right after it, so both
+// writing and loading are a single pass with an explicit stack and no recursion.
+//
+// Writing is split in two: capture() takes the tree's shape and shares each file's
+// chunks (no bytes are copied), which is quick enough to do while writers wait;
+// write() then streams and fsyncs the captured tree while they carry on.
+final class TreeSnapshot {
+    private static final int MAGIC = 0x46534E50; // "FSNP"
+    private static final byte VERSION = 2;
+    private static final byte MIN_VERSION = 1;
+    // Bounds the allocation for a name whose length is corrupt
+    private static final int MAX_NAME_BYTES = 64 * 1024 * 1024;
+    private static final byte DIRECTORY = 0;
+    private static final byte FILE = 1;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private TreeSnapshot() {
+    }
+
+    static final class Loaded {
+        final FileSystem fileSystem;
+        final long sequence;
+
+        Loaded(FileSystem fileSystem, long sequence) {
+            this.fileSystem = fileSystem;
+            this.sequence = sequence;
+        }
+    }
+
+    // The tree as of one moment. Later changes to the tree don't affect it; release it
+    // once written so the chunks it holds can be freed.
+    static final class Captured {
+        // Depth-first, in the order they are written; the root comes first
+        private final List<Entry> entries = new ArrayList<>();
+
+        void release() {
+            for (Entry entry : entries) {
+                if (entry.content != null)
+                    entry.content.release();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final int childCount;
+        // Null for a directory
+        private final ContentSnapshot content;
+
+        Entry(String name, int childCount, ContentSnapshot content) {
+            this.name = name;
+            this.childCount = childCount;
+            this.content = content;
+        }
+    }
+
+    // Takes no locks: the tree must not change while this runs
+    static Captured capture(FileSystem fileSystem) {
+        Captured captured = new Captured();
+        try {
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(fileSystem.getRoot());
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                if (node.isFile()) {
+                    captured.entries.add(new Entry(node.getName(), 0, ((File) node).captureContent()));
+                    continue;
+                }
+                Collection<Node> children = node.getChildren();
+                captured.entries.add(new Entry(node.getName(), children.size(), null));
+                for (Node child : children) {
+                    pending.push(child);
+                }
+            }
+        } catch (RuntimeException e) {
+            captured.release();
+            throw e;
+        }
+        return captured;
+    }
+
+    // Writes to a temporary file, fsyncs and renames, so a crash leaves either the
+    // complete snapshot or none
+    static Path write(Captured tree, long sequence, Path directory) throws IOException {
+        Path target = JournalFormat.snapshotPath(directory, sequence);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), COPY_BUFFER_SIZE), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(sequence);
+            writeTree(tree, out);
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        JournalFormat.syncDirectory(directory);
+        return target;
+    }
+
+    static Loaded read(Path snapshot, int cacheCapacity) throws IOException {
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshot), COPY_BUFFER_SIZE), new CRC32())) {
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC)
+                throw new IOException("not a file system snapshot: " + snapshot);
+            byte version = in.readByte();
+            if (version < MIN_VERSION || version > VERSION)
+                throw new IOException("unsupported snapshot version " + version + ": " + snapshot);
+            long sequence = in.readLong();
+            ChunkStore chunkStore = new ChunkStore();
+            Directory root = new Directory("/");
+            readTree(root, chunkStore, in, version);
+            if (version >= 2) {
+                int expected = (int) checked.getChecksum().getValue();
+                if (in.readInt() != expected || in.read() != -1)
+                    throw new IOException("corrupt snapshot: checksum mismatch: " + snapshot);
+            }
+            return new Loaded(new FileSystem(root, chunkStore, cacheCapacity), sequence);
+        }
+    }
+
+    private static void writeTree(Captured tree, DataOutputStream out) throws IOException {
+        // Only the root's child count is stored; the root itself is implicit
+        out.writeInt(tree.entries.get(0).childCount);
+        for (int i = 1; i < tree.entries.size(); i++) {
+            Entry entry = tree.entries.get(i);
+            out.writeByte(entry.content != null ? FILE : DIRECTORY);
+            writeName(entry.name, out);
+            if (entry.content != null) {
+                out.writeByte(entry.content.hasContent() ? 1 : 0);
+                out.writeLong(entry.content.length());
+                entry.content.writeTo(out);
+            } else {
+                out.writeInt(entry.childCount);
+            }
+        }
+    }
+
+    private static void writeName(String name, DataOutputStream out) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES)
+            throw new IOException("name too long for a snapshot: " + bytes.length + " bytes");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readName(DataInputStream in, byte version) throws IOException {
+        if (version < 2)
+            return in.readUTF();
+        int length = in.readInt();
+        if (length < 0 || length > MAX_NAME_BYTES)
+            throw new IOException("corrupt snapshot: name length " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void readTree(Directory root, ChunkStore chunkStore, DataInputStream in, byte version)
+            throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        // Directories still waiting for children, with how many are left
+        Deque<Directory> parents = new ArrayDeque<>();
+        Deque<int[]> remaining = new ArrayDeque<>();
+        parents.push(root);
+        remaining.push(new int[] { in.readInt() });
+        while (!parents.isEmpty()) {
+            if (remaining.peek()[0] == 0) {
+                parents.pop();
+                remaining.pop();
+                continue;
+            }
+            remaining.peek()[0]--;
+            Directory parent = parents.peek();
+            byte type = in.readByte();
+            String name = readName(in, version);
+            if (type == FILE) {
+                File file = new File(name, chunkStore);
+                readContent(file, buffer, in);
+                parent.addChild(name, file);
+            } else if (type == DIRECTORY) {
+                Directory directory = new Directory(name);
+                parent.addChild(name, directory);
+                parents.push(directory);
+                remaining.push(new int[] { in.readInt() });
+            } else {
+                throw new IOException("corrupt snapshot: unknown node type " + type);
+            }
+        }
+    }
+
+    private static void readContent(File file, byte[] buffer, DataInputStream in) throws IOException {
+        boolean hasContent = in.readByte() != 0;
+        long size = in.readLong();
+        if (hasContent && size == 0)
+            file.setContent("");
+        for (long position = 0; position < size;) {
+            int n = (int) Math.min(buffer.length, size - position);
+            in.readFully(buffer, 0, n);
+            file.append(buffer, 0, n);
+            position += n;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package file_system.manager;
+
+import file_system.cache.PathCache;
+import file_system.content.ChunkStore;
+import file_system.content.ContentSnapshot;
+import file_system.node.Directory;
+import file_system.node.File;
+import file_system.node.Node;
+import java.util.ArrayList;
+import java.util.List;
+
+// Operations on the children of one directory that FileSystem.inDirectory has already
+// resolved and locked, so each call is a single child lookup. Only valid inside that
+// call; names are single components, not paths.
+public final class DirectoryBatch {
+    private final Node directory;
+    // Canonical path of directory, for cache invalidation
+    private final String path;
+    private final ChunkStore chunkStore;
+    private final PathCache pathCache;
+    private final boolean exclusive;
+    // Deleted children, whose content FileSystem releases once the locks are dropped
+    private final List<Node> removed = new ArrayList<>();
+
+    DirectoryBatch(Node directory, String path, ChunkStore chunkStore, PathCache pathCache, boolean exclusive) {
+        this.directory = directory;
+        this.path = path;
+        this.chunkStore = chunkStore;
+        this.pathCache = pathCache;
+        this.exclusive = exclusive;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    // Same rules as createPath for the last component: a dot makes it a file
+    public boolean createChild(String name) {
+        if (!isValidName(name))
+            return false;
+        Node node = name.contains(".") ? new File(name, chunkStore) : new Directory(name);
+        return directory.addChildIfAbsent(name, node) == node;
+    }
+
+    // Requires a batch opened with exclusive = true
+    public boolean deleteChild(String name) {
+        if (!exclusive)
+            throw new IllegalStateException("deleting needs an exclusive batch: " + path);
+        Node child = isValidName(name) ? directory.getChild(name) : null;
+        if (child == null)
+            return false;
+        directory.removeChild(name);
+        pathCache.invalidatePrefix(childPath(name));
+        removed.add(child);
+        return true;
+    }
+
+    // Like deleteChild, but hands the removed subtree to the caller with its content
+    // intact instead of freeing it, e.g. to keep for undo (see FileSystem.detachPath)
+    public Node detachChild(String name) {
+        if (!exclusive)
+            throw new IllegalStateException("deleting needs an exclusive batch: " + path);
+        Node child = isValidName(name) ? directory.getChild(name) : null;
+        if (child == null)
+            return null;
+        directory.removeChild(name);
+        pathCache.invalidatePrefix(childPath(name));
+        return child;
+    }
+
+    // The child file's content as chunk references, or null if it isn't a file
+    public ContentSnapshot captureChild(String name) {
+        Node child = isValidName(name) ? directory.getChild(name) : null;
+        if (child == null || !child.isFile())
+            return null;
+        return ((File) child).captureContent();
+    }
+
+    public boolean writeChild(String name, String content) {
+        Node child = isValidName(name) ? directory.getChild(name) : null;
+        if (child == null || !child.isFile())
+            return false;
+        return ((File) child).setContent(content);
+    }
+
+    public String readChild(String name) {
+        Node child = isValidName(name) ? directory.getChild(name) : null;
+        if (child == null || !child.isFile())
+            return null;
+        return ((File) child).getContent();
+    }
+
+    List<Node> getRemoved() {
+        return removed;
+    }
+
+    private String childPath(String name) {
+        return path.equals("/") ? "/" + name : path + "/" + name;
+    }
+
+    private static boolean isValidName(String name) {
+        return name != null && !name.isEmpty() && name.indexOf('/') < 0;
+    }
+}
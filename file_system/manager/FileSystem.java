@@ -1,14 +1,53 @@
 package file_system.manager;
 
+import file_system.cache.PathCache;
+import file_system.content.ChunkStore;
+import file_system.content.ContentSnapshot;
 import file_system.node.Node;
 import file_system.node.Directory;
 import file_system.node.File;
+import file_system.path.PathCursor;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
 
-public class FileSystem {
-    private Node root;
+public class FileSystem implements FileSystemOperations {
+    // One reusable cursor per thread, so resolving a path allocates nothing
+    private static final ThreadLocal<PathCursor> CURSOR = ThreadLocal.withInitial(PathCursor::new);
+    // Locks held by the current thread. Each operation releases only the locks it took,
+    // back to the mark it started at, so a call made from inside another (e.g. from an
+    // inDirectory batch) leaves the outer operation's locks held.
+    private static final ThreadLocal<PathLocks> LOCKS = ThreadLocal.withInitial(PathLocks::new);
+
+    private static final int DEFAULT_CACHE_CAPACITY = 10_000;
+
+    // Locking: every operation read-locks each node on its path from the root down,
+    // so operations in disjoint subtrees never touch the same lock except on shared
+    // ancestors, where read locks don't exclude each other. Deleting a node
+    // write-locks its parent, which waits out everyone inside that subtree and keeps
+    // new arrivals out until the node is detached and its cache entries dropped.
+    private final Node root;
+    // Full path -> node for repeated reads; subtrees are invalidated on delete
+    private final PathCache pathCache;
+    // Deduplicated content of every file in this tree
+    private final ChunkStore chunkStore;
 
     public FileSystem() {
-        this.root = new Directory("/");
+        this(DEFAULT_CACHE_CAPACITY);
+    }
+
+    public FileSystem(int cacheCapacity) {
+        this(new Directory("/"), new ChunkStore(), cacheCapacity);
+    }
+
+    // Adopts an already built tree, e.g. one loaded from a snapshot; its files must
+    // keep their content in chunkStore
+    public FileSystem(Directory root, ChunkStore chunkStore, int cacheCapacity) {
+        this.root = root;
+        this.chunkStore = chunkStore;
+        this.pathCache = new PathCache(cacheCapacity);
     }
 
     // path = "/document/cwa_lld/design_file_system"
@@ -26,151 +65,292 @@ public class FileSystem {
         // path is valid, so continue
         if (!isValidFilePath(path))
             return false;
-        // Split path into components
-        // pathComponents = ["", "document", "cwa_lld", "design_file_system"]
-        String[] pathComponents = path.split("/");
-        // Start from root
-        // current = root directory "/"
-        Node current = root;
-        // Traverse to the parent directory
-        // We need to process: "document" and "cwa_lld" (stopping before the last
-        // component)
-        for (int i = 1; i < pathComponents.length - 1; i++) {
-            String component = pathComponents[i];
-            if (component.isEmpty())
-                continue; // Skip empty components
-            // First iteration: component = "document"
-            // Second iteration: component = "cwa_lld"
-            if (!current.hasChild(component)) {
-                // If "document" doesn't exist, create it
-                // If "cwa_lld" doesn't exist, create it
-                Node newDir = new Directory(component);
-                current.addChild(component, newDir);
+        // Walk the components in place instead of splitting
+        // cursor will visit "document", "cwa_lld", "design_file_system"
+        PathCursor cursor = CURSOR.get().reset(path);
+        // "/" alone has no component to create
+        if (!cursor.next())
+            return false;
+        PathLocks locks = LOCKS.get();
+        int mark = locks.mark();
+        try {
+            // Start from root
+            // current = root directory "/"
+            Node current = root;
+            locks.read(current);
+            // Traverse to the parent directory
+            // We need to process: "document" and "cwa_lld" (stopping before the last
+            // component)
+            while (!cursor.isLast()) {
+                // First iteration: cursor = "document"
+                // Second iteration: cursor = "cwa_lld"
+                Node child = current.getChild(cursor);
+                if (child == null) {
+                    // If "document" doesn't exist, create it
+                    // If "cwa_lld" doesn't exist, create it
+                    // Only a newly created directory needs its name as a String
+                    // If another thread creates it first, continue into theirs
+                    String name = cursor.toString();
+                    child = current.addChildIfAbsent(name, new Directory(name));
+                }
+                if (child.isFile()) {
+                    // If "document" or "cwa_lld" is a file, we cannot navigate through it
+                    // Return false in that case
+                    return false;
+                }
+                // Move to the next level
+                // First iteration: current = "document" directory
+                // Second iteration: current = "cwa_lld" directory
+                // Holding the read lock keeps it attached while we create below it
+                current = child;
+                locks.read(current);
+                cursor.next();
             }
-            Node child = current.getChild(component);
-            if (child.isFile()) {
-                // If "document" or "cwa_lld" is a file, we cannot navigate through it
-                // Return false in that case
+            // cursor is now on the last component
+            // lastComponent = "design_file_system"
+            // Check if the component already exists
+            // If "design_file_system" already exists under "cwa_lld", return false
+            if (current.getChild(cursor) != null) {
                 return false;
             }
-            // Move to the next level
-            // First iteration: current = "document" directory
-            // Second iteration: current = "cwa_lld" directory
-            current = child;
-        }
-        // Get the last component (file or directory name)
-        // lastComponent = "design_file_system"
-        String lastComponent = pathComponents[pathComponents.length - 1];
-        if (lastComponent.isEmpty())
-            return false;
-        // Check if the component already exists
-        // If "design_file_system" already exists under "cwa_lld", return false
-        if (current.hasChild(lastComponent)) {
-            return false;
+            String lastComponent = cursor.toString();
+            // Create new node based on whether it's a file (has extension) or directory
+            // "design_file_system" has no dot, so create as directory
+            Node newNode;
+            if (lastComponent.contains(".")) {
+                newNode = new File(lastComponent, chunkStore);
+            } else {
+                newNode = new Directory(lastComponent);
+            }
+            // Add the new node to the parent
+            // Add "design_file_system" directory to "cwa_lld"
+            // Fails if a concurrent create got there first
+            return current.addChildIfAbsent(lastComponent, newNode) == newNode;
+        } finally {
+            locks.releaseTo(mark);
         }
-        // Create new node based on whether it's a file (has extension) or directory
-        // "design_file_system" has no dot, so create as directory
-        Node newNode;
-        if (lastComponent.contains(".")) {
-            newNode = new File(lastComponent);
-        } else {
-            newNode = new Directory(lastComponent);
-        }
-        // Add the new node to the parent
-        // Add "design_file_system" directory to "cwa_lld"
-        current.addChild(lastComponent, newNode);
-        return true;
     }
 
     // Helper method to get node at path
     // path = "/document/cwa_lld/design_file_system"
-    private Node getNode(String path) {
+    // Leaves every node from root to the result read-locked in locks; the caller
+    // releases them once done with the node. Cache hits take no locks.
+    private Node getNode(String path, PathLocks locks) {
         // Check if path is valid
         // Path is valid, so continue
         if (!isValidFilePath(path))
             return null;
-        // For root path
-        // Path is not "/", so skip this
-        if (path.equals("/"))
-            return root;
-        // Split path into components
-        // pathComponents = ["", "document", "cwa_lld", "design_file_system"]
-        String[] pathComponents = path.split("/");
+        // Repeated reads of the same path are answered without walking the tree
+        boolean cacheable = PathCursor.isCanonical(path);
+        if (cacheable) {
+            Node cached = pathCache.get(path);
+            if (cached != null)
+                return cached;
+        }
+        PathCursor cursor = CURSOR.get().reset(path);
         // Start from root
         // current = root directory "/"
+        // For root path "/" the loop below doesn't run and root is returned
         Node current = root;
         // Traverse through the path
         // We need to process: "document", "cwa_lld", and "design_file_system"
-        for (int i = 1; i < pathComponents.length; i++) {
-            String component = pathComponents[i];
-            if (component.isEmpty())
-                continue; // Skip empty components
-            // First iteration: component = "document"
-            // Second iteration: component = "cwa_lld"
-            // Third iteration: component = "design_file_system
-            if (!current.hasChild(component)) {
+        locks.read(current);
+        while (cursor.next()) {
+            // First iteration: cursor = "document"
+            // Second iteration: cursor = "cwa_lld"
+            // Third iteration: cursor = "design_file_system"
+            current = current.getChild(cursor);
+            if (current == null) {
                 // If any component doesn't exist at its level, return null
                 return null;
             }
-            // Move to the next level
-            // First iteration: current = "document" directory
-            // Second iteration: current = "cwa_lld" directory
-            // Third iteration: current = "design_file_system" directory
-            current = current.getChild(component);
+            locks.read(current);
         }
         // Return the node found at the path
         // Returns the "design_file_system" directory node
+        // Cached while the path is still locked, so a delete of any node on it
+        // can only invalidate after this entry is in
+        if (cacheable)
+            pathCache.put(path, current);
+        return current;
+    }
+
+    // Walks to the parent of the last component in a single pass and leaves the
+    // cursor on that last component. Returns null if the parent doesn't exist or
+    // the path has no components. Ancestors of the parent are read-locked and the
+    // parent itself write-locked in locks.
+    // path = "/document/cwa_lld/design_file_system" -> "cwa_lld" directory,
+    // cursor on "design_file_system"
+    private Node lockParent(PathCursor cursor, PathLocks locks) {
+        if (!cursor.next())
+            return null;
+        Node current = root;
+        while (!cursor.isLast()) {
+            locks.read(current);
+            current = current.getChild(cursor);
+            if (current == null || current.isFile())
+                return null;
+            cursor.next();
+        }
+        locks.write(current);
         return current;
     }
 
     // Delete path
     public boolean deletePath(String path) {
+        Node removed = detachPath(path);
+        if (removed == null)
+            return false;
+        // The subtree is unreachable now, so its content can go without holding up the tree
+        releaseContent(removed);
+        return true;
+    }
+
+    // Removes the node at path and returns it with its subtree intact, or null if there
+    // is none. Its content stays allocated: pass it to attachPath to put it back, or to
+    // discardDetached once it is gone for good.
+    public Node detachPath(String path) {
         // path = "/document/cwa_lld/design_file_system"
         // Check if path is valid
         // Path is valid, so continue
         if (!isValidFilePath(path))
+            return null;
+        // Resolve parent and leaf in one traversal
+        // parent = "cwa_lld" directory node, cursor on "design_file_system"
+        PathCursor cursor = CURSOR.get().reset(path);
+        PathLocks locks = LOCKS.get();
+        int mark = locks.mark();
+        Node removed;
+        try {
+            Node parent = lockParent(cursor, locks);
+            // If parent doesn't exist or is a file, can't delete
+            // Can't delete root either: "/" has no last component, so parent is null
+            if (parent == null)
+                return null;
+            // Remove the child from the parent
+            // Remove "design_file_system" from "cwa_lld"
+            // Returns false if "design_file_system" doesn't exist under "cwa_lld"
+            removed = parent.getChild(cursor);
+            if (removed == null)
+                return null;
+            parent.removeChild(cursor);
+            // Drop cached entries for the removed node and everything below it,
+            // before the parent's write lock lets lookups back in
+            pathCache.invalidatePrefix(PathCursor.canonicalize(path));
+        } finally {
+            locks.releaseTo(mark);
+        }
+        return removed;
+    }
+
+    // Puts a subtree returned by detachPath back at path, whose last component must be
+    // the node's name. Fails if the parent directory is missing or the name is taken.
+    public boolean attachPath(String path, Node node) {
+        if (!isValidFilePath(path) || node == null)
             return false;
-        // Can't delete root
-        // Path is not "/", so continue
-        if (path.equals("/"))
-            return false;
-        // Get parent path
-        // parentPath = "/document/cwa_lld"
-        String parentPath = getParentPath(path);
-        // Get the parent node
-        // parent = "cwa_lld" directory node
-        Node parent = getNode(parentPath);
-        // If parent doesn't exist or is a file, can't delete
-        // Assuming parent exists and is a directory, continue
-        if (parent == null || parent.isFile())
+        PathCursor cursor = CURSOR.get().reset(path);
+        if (!cursor.next())
             return false;
-        // Get the last component of the path
-        // lastComponent = "design_file_system"
-        String lastComponent = path.substring(path.lastIndexOf('/') + 1);
-        // Check if the component exists
-        // If "design_file_system" doesn't exist under "cwa_lld", return false
-        if (!parent.hasChild(lastComponent)) {
+        PathLocks locks = LOCKS.get();
+        int mark = locks.mark();
+        try {
+            Node current = root;
+            locks.read(current);
+            while (!cursor.isLast()) {
+                current = current.getChild(cursor);
+                if (current == null || current.isFile())
+                    return false;
+                locks.read(current);
+                cursor.next();
+            }
+            if (!node.getName().contentEquals(cursor))
+                return false;
+            return current.addChildIfAbsent(node.getName(), node) == node;
+        } finally {
+            locks.releaseTo(mark);
+        }
+    }
+
+    // Frees the content of a subtree from detachPath that will not be attached again
+    public void discardDetached(Node node) {
+        releaseContent(node);
+    }
+
+    public boolean exists(String path) {
+        PathLocks locks = LOCKS.get();
+        int mark = locks.mark();
+        try {
+            return getNode(path, locks) != null;
+        } finally {
+            locks.releaseTo(mark);
+        }
+    }
+
+    // The directory is read-locked, or write-locked when exclusive, for the whole
+    // batch, like the parent in createPath or deletePath
+    @Override
+    public boolean inDirectory(String path, boolean exclusive, Consumer<DirectoryBatch> ops) {
+        if (!isValidFilePath(path))
             return false;
+        PathCursor cursor = CURSOR.get().reset(path);
+        PathLocks locks = LOCKS.get();
+        int mark = locks.mark();
+        DirectoryBatch batch;
+        try {
+            Node current = root;
+            while (cursor.next()) {
+                locks.read(current);
+                current = current.getChild(cursor);
+                if (current == null)
+                    return false;
+            }
+            if (current.isFile())
+                return false;
+            if (exclusive)
+                locks.write(current);
+            else
+                locks.read(current);
+            batch = new DirectoryBatch(current, PathCursor.canonicalize(path), chunkStore, pathCache, exclusive);
+            ops.accept(batch);
+        } finally {
+            locks.releaseTo(mark);
+        }
+        for (Node node : batch.getRemoved()) {
+            releaseContent(node);
         }
-        // Remove the child from the parent
-        // Remove "design_file_system" from "cwa_lld"
-        return parent.removeChild(lastComponent);
+        return true;
     }
 
-    // Helper method to get parent path
-    private String getParentPath(String path) {
-        // path = "/document/cwa_lld/design_file_system"
-        // Find the last slash
-        // lastSlash = 19 (position of last slash before "design_file_system")
-        int lastSlash = path.lastIndexOf('/');
-        // If there's no slash or only the root slash, return root
-        // lastSlash is 19, which is > 0, so continue
-        if (lastSlash <= 0) {
-            return "/";
+    // Returns the chunks of every file under node to the chunk store
+    private void releaseContent(Node node) {
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty()) {
+            Node current = pending.pop();
+            if (current.isFile()) {
+                ((File) current).release();
+            } else {
+                for (Node child : current.getChildren()) {
+                    pending.push(child);
+                }
+            }
         }
-        // Return the substring up to the last slash
-        // Returns "/document/cwa_lld"
-        return path.substring(0, lastSlash);
+    }
+
+    // For whole-tree traversals such as snapshots. Takes no locks, so the caller must
+    // keep writers out for a consistent view (JournaledFileSystem does).
+    public Node getRoot() {
+        return root;
+    }
+
+    // Logical vs physical content bytes, i.e. how much deduplication saves
+    public ChunkStore getChunkStore() {
+        return chunkStore;
+    }
+
+    // Hit/miss/eviction statistics of the path lookup cache
+    public PathCache getPathCache() {
+        return pathCache;
     }
 
     // Display the entire file system structure
@@ -180,20 +360,125 @@ public class FileSystem {
 
     // Set content for file
     public boolean setFileContent(String path, String content) {
-        Node node = getNode(path);
-        if (node == null || !node.isFile())
-            return false;
-        File file = (File) node;
-        file.setContent(content);
-        return true;
+        PathLocks locks = LOCKS.get();
+        int mark = locks.mark();
+        try {
+            Node node = getNode(path, locks);
+            if (node == null || !node.isFile())
+                return false;
+            File file = (File) node;
+            return file.setContent(content);
+        } finally {
+            locks.releaseTo(mark);
+        }
     }
 
     // Get content from file
     public String getFileContent(String path) {
-        Node node = getNode(path);
-        if (node == null || !node.isFile())
+        PathLocks locks = LOCKS.get();
+        int mark = locks.mark();
+        try {
+            Node node = getNode(path, locks);
+            if (node == null || !node.isFile())
+                return null;
+            File file = (File) node;
+            return file.getContent();
+        } finally {
+            locks.releaseTo(mark);
+        }
+    }
+
+    // Up to length bytes starting at offset; shorter near the end of the file, empty
+    // past it. Null if path is not a file.
+    // Only the chunks covering the range are touched, whatever the file size.
+    public byte[] readFile(String path, long offset, int length) {
+        if (offset < 0 || length < 0)
             return null;
-        File file = (File) node;
-        return file.getContent();
+        PathLocks locks = LOCKS.get();
+        int mark = locks.mark();
+        try {
+            Node node = getNode(path, locks);
+            if (node == null || !node.isFile())
+                return null;
+            return ((File) node).read(offset, length);
+        } finally {
+            locks.releaseTo(mark);
+        }
+    }
+
+    // Appends to the end of the file, copying only the new bytes
+    public boolean appendFile(String path, byte[] data) {
+        if (data == null)
+            return false;
+        PathLocks locks = LOCKS.get();
+        int mark = locks.mark();
+        try {
+            Node node = getNode(path, locks);
+            if (node == null || !node.isFile())
+                return false;
+            return ((File) node).append(data, 0, data.length);
+        } finally {
+            locks.releaseTo(mark);
+        }
+    }
+
+    // Shrinks the file to length bytes; false if it isn't a file or is shorter
+    public boolean truncateFile(String path, long length) {
+        PathLocks locks = LOCKS.get();
+        int mark = locks.mark();
+        try {
+            Node node = getNode(path, locks);
+            return node != null && node.isFile() && ((File) node).truncate(length);
+        } finally {
+            locks.releaseTo(mark);
+        }
+    }
+
+    // Size in bytes, or -1 if path is not a file
+    public long getFileSize(String path) {
+        PathLocks locks = LOCKS.get();
+        int mark = locks.mark();
+        try {
+            Node node = getNode(path, locks);
+            return node != null && node.isFile() ? ((File) node).size() : -1;
+        } finally {
+            locks.releaseTo(mark);
+        }
+    }
+
+    // Streams read from and append to the file itself. Deleting the path releases
+    // its content, after which open input streams hit end of file and writes fail.
+    // Null if path is not a file.
+    public InputStream openInputStream(String path) {
+        File file = getFile(path);
+        return file != null ? file.newInputStream() : null;
+    }
+
+    public OutputStream openOutputStream(String path) {
+        File file = getFile(path);
+        return file != null ? file.newOutputStream() : null;
+    }
+
+    // The file's current content as shared chunk references, or null if path is not a
+    // file; see File.captureContent
+    public ContentSnapshot captureFileContent(String path) {
+        File file = getFile(path);
+        return file != null ? file.captureContent() : null;
+    }
+
+    public boolean restoreFileContent(String path, ContentSnapshot snapshot) {
+        File file = getFile(path);
+        return file != null && file.restoreContent(snapshot);
+    }
+
+    private File getFile(String path) {
+        PathLocks locks = LOCKS.get();
+        int mark = locks.mark();
+        try {
+            Node node = getNode(path, locks);
+            return node != null && node.isFile() ? (File) node : null;
+        } finally {
+            locks.releaseTo(mark);
+        }
     }
 }
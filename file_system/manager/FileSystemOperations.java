@@ -0,0 +1,25 @@
+package file_system.manager;
+
+import java.util.function.Consumer;
+
+// The operations commands run against, so the mutable tree (FileSystem) and the
+// copy-on-write one (PersistentFileSystem) are interchangeable receivers
+public interface FileSystemOperations {
+    boolean createPath(String path);
+
+    boolean deletePath(String path);
+
+    boolean setFileContent(String path, String content);
+
+    String getFileContent(String path);
+
+    void display();
+
+    // Resolves the directory at path once and runs ops against its children, for
+    // batches of commands sharing a parent. exclusive is needed to delete children.
+    // Returns false if path is not a directory or the receiver can't batch, in which
+    // case ops did not run and callers fall back to the single-path methods.
+    default boolean inDirectory(String path, boolean exclusive, Consumer<DirectoryBatch> ops) {
+        return false;
+    }
+}
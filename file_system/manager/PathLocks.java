@@ -0,0 +1,52 @@
+package file_system.manager;
+
+import file_system.node.Node;
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+
+// Locks taken on the way down a path, released together once the operation is done.
+// Locks are always acquired root-first, so two operations can only wait on each
+// other along a single ancestor chain and never deadlock.
+// One instance per thread; the array grows to the deepest nesting seen and is reused.
+// Operations nest as a stack: each takes a mark on entry and releases back to it.
+final class PathLocks {
+    private Lock[] held = new Lock[16];
+    private int count;
+
+    void read(Node node) {
+        acquire(node.getLock().readLock());
+    }
+
+    // A read lock can't be upgraded: write-locking a node this thread already holds
+    // read-locked (say, deleting from inside a shared inDirectory batch) would wait
+    // forever, so it fails instead
+    void write(Node node) {
+        Lock readLock = node.getLock().readLock();
+        for (int i = 0; i < count; i++) {
+            if (held[i] == readLock)
+                throw new IllegalStateException("cannot write-lock " + node.getName()
+                        + " while this thread holds its read lock");
+        }
+        acquire(node.getLock().writeLock());
+    }
+
+    private void acquire(Lock lock) {
+        lock.lock();
+        if (count == held.length)
+            held = Arrays.copyOf(held, count * 2);
+        held[count++] = lock;
+    }
+
+    // Position to release back to when the operation starting now finishes
+    int mark() {
+        return count;
+    }
+
+    // Releases the locks taken since mark, in reverse acquisition order
+    void releaseTo(int mark) {
+        while (count > mark) {
+            held[--count].unlock();
+            held[count] = null;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package file_system.manager;
+
+import file_system.path.PathCursor;
+import file_system.persistent.FileSystemSnapshot;
+import file_system.persistent.PersistentDirectory;
+import file_system.persistent.PersistentFile;
+import file_system.persistent.PersistentNode;
+import java.util.concurrent.atomic.AtomicReference;
+
+// FileSystem variant for read-heavy workloads. The tree is immutable: a change copies
+// the directories on its path (path copying), shares everything else with the previous
+// version, and publishes the new root with a compare-and-set. Readers take no locks at
+// all, and snapshot() hands out the current version in O(1).
+//
+// Writers race on the root CAS and retry on conflict, so write throughput is that of a
+// single writer; use FileSystem when writes in disjoint subtrees must scale.
+public class PersistentFileSystem implements FileSystemOperations {
+    private static final ThreadLocal<PathCursor> CURSOR = ThreadLocal.withInitial(PathCursor::new);
+
+    // Rewrites the directory holding the cursor's last component; null if the change doesn't apply
+    private interface LeafUpdate {
+        PersistentDirectory apply(PersistentDirectory parent, PathCursor cursor);
+    }
+
+    private final AtomicReference<FileSystemSnapshot> current;
+
+    public PersistentFileSystem() {
+        this.current = new AtomicReference<>(new FileSystemSnapshot(new PersistentDirectory("/"), 0));
+    }
+
+    public boolean isValidFilePath(String path) {
+        return path != null && !path.isEmpty() && path.startsWith("/");
+    }
+
+    // Immutable view of the tree as of now; later writes don't affect it
+    public FileSystemSnapshot snapshot() {
+        return current.get();
+    }
+
+    // Missing intermediate directories are created in the same version as the leaf,
+    // so readers see either none or all of them
+    @Override
+    public boolean createPath(String path) {
+        return update(path, true, (parent, cursor) -> {
+            if (parent.getChild(cursor) != null)
+                return null;
+            String name = cursor.toString();
+            PersistentNode node = name.contains(".") ? new PersistentFile(name, null) : new PersistentDirectory(name);
+            return parent.with(node);
+        });
+    }
+
+    @Override
+    public boolean deletePath(String path) {
+        return update(path, false, PersistentDirectory::without);
+    }
+
+    @Override
+    public boolean setFileContent(String path, String content) {
+        return update(path, false, (parent, cursor) -> {
+            PersistentNode node = parent.getChild(cursor);
+            if (node == null || !node.isFile())
+                return null;
+            return parent.with(((PersistentFile) node).withContent(content));
+        });
+    }
+
+    @Override
+    public String getFileContent(String path) {
+        return current.get().getFileContent(path);
+    }
+
+    // Displays one consistent version even while writes continue
+    @Override
+    public void display() {
+        current.get().display();
+    }
+
+    private boolean update(String path, boolean createMissing, LeafUpdate leaf) {
+        if (!isValidFilePath(path))
+            return false;
+        PathCursor cursor = CURSOR.get();
+        while (true) {
+            FileSystemSnapshot base = current.get();
+            // "/" alone has no component to change
+            if (!cursor.reset(path).next())
+                return false;
+            PersistentDirectory root = copyPath(base.getRoot(), cursor, createMissing, leaf);
+            if (root == null)
+                return false;
+            if (current.compareAndSet(base, new FileSystemSnapshot(root, base.getVersion() + 1)))
+                return true;
+            // Another writer published first; redo the change on top of its version
+        }
+    }
+
+    // Descends to the parent of the last component, applies leaf there, and returns
+    // copies of every directory on the way back up
+    private PersistentDirectory copyPath(PersistentDirectory dir, PathCursor cursor, boolean createMissing,
+            LeafUpdate leaf) {
+        if (cursor.isLast())
+            return leaf.apply(dir, cursor);
+        PersistentNode child = dir.getChild(cursor);
+        if (child == null) {
+            if (!createMissing)
+                return null;
+            child = new PersistentDirectory(cursor.toString());
+        }
+        if (child.isFile())
+            return null;
+        cursor.next();
+        PersistentDirectory updated = copyPath((PersistentDirectory) child, cursor, createMissing, leaf);
+        return updated == null ? null : dir.with(updated);
+    }
+}
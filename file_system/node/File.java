@@ -1,11 +1,35 @@
 package file_system.node;
 
+import file_system.content.ChunkStore;
+import file_system.content.ChunkedContent;
+import file_system.content.ContentSnapshot;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
 public class File extends Node {
-    private String content;
+    private final ChunkedContent content;
+    // Distinguishes "never written" (getContent() == null) from empty content
+    private boolean written;
+    // Set by release(); a deleted file's content stays empty, since nothing would ever
+    // give chunks interned afterwards back to the store
+    private boolean released;
+    // Guards content, written and released. Separate from the node lock, which FileSystem holds
+    // for read on every node of a path while the file is being used.
+    private final ReadWriteLock contentLock = new ReentrantReadWriteLock();
     private String extension;
 
     public File(String name) {
+        this(name, ChunkStore.getDefault());
+    }
+
+    // Content chunks are shared with every other file in the same store
+    public File(String name, ChunkStore store) {
         super(name);
+        this.content = new ChunkedContent(store);
         this.extension = extractExtension(name);
     }
 
@@ -14,13 +38,150 @@ public class File extends Node {
         return (dotIndex > 0) ? name.substring(dotIndex + 1) : "";
     }
 
-    public void setContent(String content) {
-        this.content = content;
+    // Replaces the whole content with its UTF-8 bytes; null resets the file to never written.
+    // False if the file was deleted.
+    public boolean setContent(String content) {
+        byte[] bytes = content != null ? content.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        contentLock.writeLock().lock();
+        try {
+            if (released)
+                return false;
+            this.content.replace(bytes, 0, bytes.length);
+            written = content != null;
+        } finally {
+            contentLock.writeLock().unlock();
+        }
         updateModifiedTime();
+        return true;
     }
 
+    // Whole content decoded as UTF-8, or null if nothing was ever written
     public String getContent() {
-        return content;
+        contentLock.readLock().lock();
+        try {
+            return written ? new String(content.toByteArray(), StandardCharsets.UTF_8) : null;
+        } finally {
+            contentLock.readLock().unlock();
+        }
+    }
+
+    // Copies up to len bytes starting at position; returns the count, or -1 at end of file
+    public int read(long position, byte[] dst, int off, int len) {
+        contentLock.readLock().lock();
+        try {
+            return content.read(position, dst, off, len);
+        } finally {
+            contentLock.readLock().unlock();
+        }
+    }
+
+    // Up to len bytes starting at position, as one consistent read
+    public byte[] read(long position, int len) {
+        contentLock.readLock().lock();
+        try {
+            byte[] bytes = new byte[(int) Math.max(0, Math.min(len, content.length() - position))];
+            content.read(position, bytes, 0, bytes.length);
+            return bytes;
+        } finally {
+            contentLock.readLock().unlock();
+        }
+    }
+
+    // False if the file was deleted
+    public boolean append(byte[] src, int off, int len) {
+        contentLock.writeLock().lock();
+        try {
+            if (released)
+                return false;
+            content.append(src, off, len);
+            written = true;
+        } finally {
+            contentLock.writeLock().unlock();
+        }
+        updateModifiedTime();
+        return true;
+    }
+
+    // Shrinks the file to length bytes; false if it is shorter than that or was deleted
+    public boolean truncate(long length) {
+        contentLock.writeLock().lock();
+        try {
+            if (released || length < 0 || length > content.length())
+                return false;
+            content.truncate(length);
+        } finally {
+            contentLock.writeLock().unlock();
+        }
+        updateModifiedTime();
+        return true;
+    }
+
+    // Content as of now, sharing chunks with the file; release it when no longer needed
+    public ContentSnapshot captureContent() {
+        contentLock.readLock().lock();
+        try {
+            return content.snapshot(written);
+        } finally {
+            contentLock.readLock().unlock();
+        }
+    }
+
+    // False if the file was deleted
+    public boolean restoreContent(ContentSnapshot snapshot) {
+        contentLock.writeLock().lock();
+        try {
+            if (released)
+                return false;
+            content.restore(snapshot);
+            written = snapshot.hasContent();
+        } finally {
+            contentLock.writeLock().unlock();
+        }
+        updateModifiedTime();
+        return true;
+    }
+
+    // Gives the content's chunks back to the store once the file is deleted. Later
+    // changes fail, so writers still holding the file can't intern chunks that would leak.
+    public void release() {
+        contentLock.writeLock().lock();
+        try {
+            released = true;
+            content.clear();
+            written = false;
+        } finally {
+            contentLock.writeLock().unlock();
+        }
+    }
+
+    // False until the first write, and again after setContent(null) or release()
+    public boolean hasContent() {
+        contentLock.readLock().lock();
+        try {
+            return written;
+        } finally {
+            contentLock.readLock().unlock();
+        }
+    }
+
+    public long size() {
+        contentLock.readLock().lock();
+        try {
+            return content.length();
+        } finally {
+            contentLock.readLock().unlock();
+        }
+    }
+
+    // Streams from the start; every read() sees the content as of that call
+    public InputStream newInputStream() {
+        return new ContentInputStream(this);
+    }
+
+    // Appends to the end; every write() lands atomically, and fails with IOException
+    // once the file is deleted
+    public OutputStream newOutputStream() {
+        return new ContentOutputStream(this);
     }
 
     public boolean isFile() {
@@ -39,4 +200,78 @@ public class File extends Node {
         // e.g., " 📄 requirements.txt"
         System.out.println(indent + "📄 " + getName());
     }
-}
\ No newline at end of file
+
+    private static final class ContentInputStream extends InputStream {
+        private final File file;
+        // Reused by the single-byte read()
+        private final byte[] single = new byte[1];
+        private long position;
+        private long mark;
+
+        ContentInputStream(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public int read() {
+            return read(single, 0, 1) == 1 ? single[0] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            int n = file.read(position, b, off, len);
+            if (n > 0)
+                position += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, file.size() - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, file.size() - position));
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public void mark(int readLimit) {
+            mark = position;
+        }
+
+        @Override
+        public void reset() {
+            position = mark;
+        }
+    }
+
+    private static final class ContentOutputStream extends OutputStream {
+        private final File file;
+        // Reused by the single-byte write()
+        private final byte[] single = new byte[1];
+
+        ContentOutputStream(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!file.append(b, off, len))
+                throw new IOException("file was deleted: " + file.getName());
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package file_system.node;
 
 import java.util.Map;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.time.LocalDateTime;
 import java.util.Collection;
 
@@ -9,11 +11,14 @@ public abstract class Node {
     private String name;
     private Map<String, Node> children;
     private LocalDateTime createdAt;
-    private LocalDateTime modifiedAt;
+    private volatile LocalDateTime modifiedAt;
+    // Held for read by every operation passing through this node, and for write
+    // while one of its children is being detached (see FileSystem)
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
     public Node(String name) {
         this.name = name;
-        this.children = new HashMap<>();
+        this.children = new ConcurrentHashMap<>();
         this.createdAt = LocalDateTime.now();
         this.modifiedAt = LocalDateTime.now();
     }
@@ -23,6 +28,16 @@ public abstract class Node {
         this.modifiedAt = LocalDateTime.now();
     }
 
+    // Atomically adds child unless the name is taken; returns whichever node
+    // ends up under that name
+    public Node addChildIfAbsent(String name, Node child) {
+        Node existing = this.children.putIfAbsent(name, child);
+        if (existing != null)
+            return existing;
+        this.modifiedAt = LocalDateTime.now();
+        return child;
+    }
+
     public boolean hasChild(String name) {
         return this.children.containsKey(name);
     }
@@ -31,12 +46,18 @@ public abstract class Node {
         return this.children.get(name);
     }
 
+    // Lookup by any CharSequence whose hashCode/equals match the String name,
+    // e.g. a PathCursor positioned on a component, so no substring is needed
+    public Node getChild(CharSequence name) {
+        return this.children.get(name);
+    }
+
     public boolean removeChild(String name) {
-        if (hasChild(name)) {
-            children.remove(name);
-            return true;
-        }
-        return false;
+        return children.remove(name) != null;
+    }
+
+    public boolean removeChild(CharSequence name) {
+        return children.remove(name) != null;
     }
 
     public abstract boolean isFile();
@@ -51,6 +72,10 @@ public abstract class Node {
         return children.values();
     }
 
+    public ReadWriteLock getLock() {
+        return lock;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,124 @@
+package file_system.path;
+
+// Walks the components of a path in place, without String.split or substrings.
+//
+// path = "/document/cwa_lld/design_file_system"
+// next() -> "document", next() -> "cwa_lld", next() -> "design_file_system", next() -> false
+//
+// The cursor is itself a CharSequence for the current component, and its hashCode()
+// and equals() match those of the equivalent String. That lets it be passed straight
+// to a Map<String, Node> lookup (HashMap/ConcurrentHashMap call equals() on the lookup
+// key), so finding a child never allocates. A cursor is reusable but not thread-safe.
+public final class PathCursor implements CharSequence {
+    private String path;
+    private int start;
+    private int end;
+    private int hash;
+
+    public PathCursor reset(String path) {
+        this.path = path;
+        this.start = 0;
+        this.end = 0;
+        this.hash = 0;
+        return this;
+    }
+
+    // Advances to the next non-empty component, skipping repeated slashes
+    public boolean next() {
+        int length = path.length();
+        int i = end;
+        while (i < length && path.charAt(i) == '/') {
+            i++;
+        }
+        if (i >= length) {
+            start = end = length;
+            hash = 0;
+            return false;
+        }
+        start = i;
+        int h = 0;
+        while (i < length && path.charAt(i) != '/') {
+            h = 31 * h + path.charAt(i);
+            i++;
+        }
+        end = i;
+        hash = h;
+        return true;
+    }
+
+    // True when no non-empty component follows the current one
+    public boolean isLast() {
+        int length = path.length();
+        for (int i = end; i < length; i++) {
+            if (path.charAt(i) != '/')
+                return false;
+        }
+        return true;
+    }
+
+    // "/a/b" is canonical; "/a//b", "/a/b/" and "/" are not. Only canonical paths
+    // are used as cache keys, so one node never hides behind several spellings.
+    public static boolean isCanonical(String path) {
+        int length = path.length();
+        if (length < 2 || path.charAt(0) != '/' || path.charAt(length - 1) == '/')
+            return false;
+        for (int i = 1; i < length; i++) {
+            if (path.charAt(i) == '/' && path.charAt(i - 1) == '/')
+                return false;
+        }
+        return true;
+    }
+
+    // "/a//b/" -> "/a/b"; "/" -> "/"
+    public static String canonicalize(String path) {
+        if (isCanonical(path))
+            return path;
+        StringBuilder builder = new StringBuilder(path.length());
+        PathCursor cursor = new PathCursor().reset(path);
+        while (cursor.next()) {
+            builder.append('/').append(path, cursor.start, cursor.end);
+        }
+        return builder.length() == 0 ? "/" : builder.toString();
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return path.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        return path.subSequence(start + from, start + to);
+    }
+
+    // Allocates the component as a String; only needed when storing a new name
+    @Override
+    public String toString() {
+        return path.substring(start, end);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof CharSequence))
+            return false;
+        CharSequence sequence = (CharSequence) other;
+        int length = end - start;
+        if (sequence.length() != length)
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (sequence.charAt(i) != path.charAt(start + i))
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package file_system.persistent;
+
+import file_system.path.PathCursor;
+
+// A point-in-time, read-only view of the tree. Nothing it references is ever modified,
+// so a snapshot can be traversed for as long as needed, from any number of threads,
+// without locks and without holding up writers.
+public final class FileSystemSnapshot {
+    private static final ThreadLocal<PathCursor> CURSOR = ThreadLocal.withInitial(PathCursor::new);
+
+    private final PersistentDirectory root;
+    // Number of successful changes before this snapshot was taken
+    private final long version;
+
+    public FileSystemSnapshot(PersistentDirectory root, long version) {
+        this.root = root;
+        this.version = version;
+    }
+
+    public PersistentDirectory getRoot() {
+        return root;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Node at path, or null if it doesn't exist in this snapshot
+    public PersistentNode getNode(String path) {
+        if (path == null || !path.startsWith("/"))
+            return null;
+        PathCursor cursor = CURSOR.get().reset(path);
+        PersistentNode current = root;
+        while (cursor.next()) {
+            if (current.isFile())
+                return null;
+            current = ((PersistentDirectory) current).getChild(cursor);
+            if (current == null)
+                return null;
+        }
+        return current;
+    }
+
+    public boolean exists(String path) {
+        return getNode(path) != null;
+    }
+
+    public String getFileContent(String path) {
+        PersistentNode node = getNode(path);
+        if (node == null || !node.isFile())
+            return null;
+        return ((PersistentFile) node).getContent();
+    }
+
+    public void display() {
+        root.display(0);
+    }
+}
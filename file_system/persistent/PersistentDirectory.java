@@ -0,0 +1,107 @@
+package file_system.persistent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Children are kept in an array sorted by name: lookups are a binary search, and a
+// copy for an update is one array copy, with no per-entry objects as in a HashMap.
+public final class PersistentDirectory extends PersistentNode {
+    private static final PersistentNode[] NO_CHILDREN = new PersistentNode[0];
+
+    private final PersistentNode[] children;
+
+    public PersistentDirectory(String name) {
+        this(name, NO_CHILDREN);
+    }
+
+    private PersistentDirectory(String name, PersistentNode[] children) {
+        super(name);
+        this.children = children;
+    }
+
+    // Lookup by any CharSequence with the child's name, e.g. a PathCursor
+    public PersistentNode getChild(CharSequence name) {
+        int index = indexOf(name);
+        return index >= 0 ? children[index] : null;
+    }
+
+    // Copy of this directory with child added, or replacing the child of the same name
+    public PersistentDirectory with(PersistentNode child) {
+        int index = indexOf(child.getName());
+        PersistentNode[] copy;
+        if (index >= 0) {
+            copy = children.clone();
+            copy[index] = child;
+        } else {
+            int insertAt = -index - 1;
+            copy = new PersistentNode[children.length + 1];
+            System.arraycopy(children, 0, copy, 0, insertAt);
+            copy[insertAt] = child;
+            System.arraycopy(children, insertAt, copy, insertAt + 1, children.length - insertAt);
+        }
+        return new PersistentDirectory(getName(), copy);
+    }
+
+    // Copy of this directory without the named child, or null if there is no such child
+    public PersistentDirectory without(CharSequence name) {
+        int index = indexOf(name);
+        if (index < 0)
+            return null;
+        PersistentNode[] copy = new PersistentNode[children.length - 1];
+        System.arraycopy(children, 0, copy, 0, index);
+        System.arraycopy(children, index + 1, copy, index, copy.length - index);
+        return new PersistentDirectory(getName(), copy);
+    }
+
+    // Children in name order
+    public List<PersistentNode> getChildren() {
+        return Collections.unmodifiableList(Arrays.asList(children));
+    }
+
+    public int size() {
+        return children.length;
+    }
+
+    @Override
+    public boolean isFile() {
+        return false;
+    }
+
+    @Override
+    public void display(int depth) {
+        String indent = " ".repeat(depth * 2);
+        System.out.println(indent + "📁 " + getName() + " (" + children.length + " items)");
+        for (PersistentNode child : children) {
+            child.display(depth + 1);
+        }
+    }
+
+    // Binary search by name; returns -(insertion point) - 1 when absent, like Arrays.binarySearch
+    private int indexOf(CharSequence name) {
+        int low = 0;
+        int high = children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(children[mid].getName(), name);
+            if (cmp < 0)
+                low = mid + 1;
+            else if (cmp > 0)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -(low + 1);
+    }
+
+    // Same ordering as String.compareTo, without turning the CharSequence into a String
+    private static int compare(String a, CharSequence b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            int diff = a.charAt(i) - b.charAt(i);
+            if (diff != 0)
+                return diff;
+        }
+        return a.length() - b.length();
+    }
+}
@@ -0,0 +1,30 @@
+package file_system.persistent;
+
+public final class PersistentFile extends PersistentNode {
+    private final String content;
+
+    public PersistentFile(String name, String content) {
+        super(name);
+        this.content = content;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    // Same name, new content; this file is left unchanged
+    public PersistentFile withContent(String content) {
+        return new PersistentFile(getName(), content);
+    }
+
+    @Override
+    public boolean isFile() {
+        return true;
+    }
+
+    @Override
+    public void display(int depth) {
+        String indent = " ".repeat(depth * 2);
+        System.out.println(indent + "📄 " + getName());
+    }
+}
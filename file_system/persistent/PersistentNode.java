@@ -0,0 +1,20 @@
+package file_system.persistent;
+
+// Immutable counterpart of Node. A change never modifies a node in place: it builds
+// new copies of the nodes on the changed path and shares every other subtree with the
+// previous version, so any reference to an old root stays a consistent snapshot.
+public abstract class PersistentNode {
+    private final String name;
+
+    protected PersistentNode(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public abstract boolean isFile();
+
+    public abstract void display(int depth);
+}
@@ -0,0 +1,84 @@
+package file_system.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import file_system.command.CommandHistory;
+import file_system.command.CommandInvoker;
+import file_system.command.CreateCommand;
+import file_system.command.DeleteCommand;
+import file_system.command.FileSystemCommand;
+import file_system.command.WriteCommand;
+import file_system.manager.FileSystem;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class CommandInvokerTest {
+
+    @Test
+    void historyIsBoundedByBytes() {
+        FileSystem fs = new FileSystem();
+        CommandHistory history = new CommandHistory(1000, 64 * 1024);
+        CommandInvoker invoker = new CommandInvoker(history, ForkJoinPool.commonPool());
+        invoker.executeCommand(new CreateCommand(fs, "/big.txt"));
+        for (int i = 0; i < 10; i++) {
+            invoker.executeCommand(new WriteCommand(fs, "/big.txt", "x".repeat(20_000)));
+        }
+
+        assertTrue(history.getRetainedBytes() <= 64 * 1024);
+        assertEquals(1, history.size());
+    }
+
+    @Test
+    void batchHistoryKeepsScriptOrder() {
+        FileSystem fs = new FileSystem();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        CommandInvoker invoker = new CommandInvoker(new CommandHistory(1000), pool);
+        List<FileSystemCommand> script = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            // Alternating subtrees, which run as parallel tasks
+            script.add(new CreateCommand(fs, "/a/f" + i + ".txt"));
+            script.add(new CreateCommand(fs, "/b/f" + i + ".txt"));
+            script.add(new WriteCommand(fs, "/c/d" + (i % 3) + "/f.txt", "v" + i));
+        }
+        invoker.executeBatch(script);
+        pool.shutdown();
+
+        assertEquals(script, invoker.getCommandHistory());
+    }
+
+    @Test
+    void batchIsOneUndoStepAndKeepsEarlierHistory() {
+        FileSystem fs = new FileSystem();
+        CommandInvoker invoker = new CommandInvoker();
+        invoker.executeCommand(new CreateCommand(fs, "/a/keep.txt"));
+        invoker.executeCommand(new WriteCommand(fs, "/a/keep.txt", "before"));
+
+        invoker.executeBatch(List.of(
+                new WriteCommand(fs, "/a/keep.txt", "during"),
+                new CreateCommand(fs, "/a/new.txt"),
+                new CreateCommand(fs, "/b/c/d.txt"),
+                new WriteCommand(fs, "/b/c/d.txt", "d"),
+                new DeleteCommand(fs, "/a/keep.txt")));
+        assertFalse(fs.exists("/a/keep.txt"));
+        assertEquals("d", fs.getFileContent("/b/c/d.txt"));
+
+        assertTrue(invoker.undo());
+        assertEquals("before", fs.getFileContent("/a/keep.txt"));
+        assertFalse(fs.exists("/a/new.txt"));
+        assertFalse(fs.exists("/b/c/d.txt"));
+
+        assertTrue(invoker.redo());
+        assertFalse(fs.exists("/a/keep.txt"));
+        assertEquals("d", fs.getFileContent("/b/c/d.txt"));
+
+        // The commands before the batch are still there to undo
+        assertTrue(invoker.undo());
+        assertTrue(invoker.undo());
+        assertNull(fs.getFileContent("/a/keep.txt"));
+    }
+}
@@ -0,0 +1,180 @@
+package file_system.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import file_system.manager.FileSystem;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.junit.jupiter.api.Test;
+
+// Threads run a fixed number of steps whose results have exactly one right answer, so
+// a lost update, a stale cache entry or a leaked lock fails the test on every run in
+// which it happens; a deadlock fails it through the join timeout.
+class FileSystemConcurrencyTest {
+    private static final int THREADS = 4;
+    private static final long JOIN_TIMEOUT_MILLIS = 60_000;
+
+    @Test
+    void privateSubtreesStayExactUnderSharedContention() throws InterruptedException {
+        FileSystem fs = new FileSystem();
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int id = t;
+            workers.add(start(() -> {
+                await(start);
+                for (int i = 0; i < 2_000; i++) {
+                    // Nobody else touches /private/<id>
+                    String dir = "/private/" + id + "/d" + (i % 8);
+                    String file = dir + "/data.txt";
+                    expect(fs.createPath(file), "create " + file, failures);
+                    expect(fs.setFileContent(file, id + ":" + i), "write " + file, failures);
+                    expect((id + ":" + i).equals(fs.getFileContent(file)), "read back " + file, failures);
+                    expect(fs.deletePath(dir), "delete " + dir, failures);
+                    expect(fs.getFileContent(file) == null, "read after delete " + file, failures);
+                    // Shared paths only contend; their results depend on the interleaving
+                    String shared = "/shared/s" + (i % 4) + "/f" + (i % 3) + ".txt";
+                    fs.createPath(shared);
+                    fs.setFileContent(shared, "x");
+                    fs.getFileContent(shared);
+                    if (i % 50 == 0)
+                        fs.deletePath("/shared/s" + (i % 4));
+                }
+            }, failures));
+        }
+        start.countDown();
+        joinAll(workers);
+
+        assertEquals("[]", failures.toString());
+        assertNoLocksHeld(fs);
+        assertTrue(fs.getPathCache().getHitCount() > 0);
+    }
+
+    @Test
+    void cachedPathIsGoneOnceItsParentIsDeleted() throws InterruptedException {
+        FileSystem fs = new FileSystem();
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        int generations = 500;
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        String file = "/p/c/f.txt";
+
+        // Each generation: the writer creates the file, then deletes its grandparent while
+        // the reader looks it up, hitting the cache entry its earlier reads put there
+        Thread writer = start(() -> {
+            for (int g = 0; g < generations; g++) {
+                expect(fs.createPath(file), "create generation " + g, failures);
+                expect(fs.setFileContent(file, "g" + g), "write generation " + g, failures);
+                await(barrier);
+                expect(fs.deletePath("/p"), "delete generation " + g, failures);
+                await(barrier);
+                // Wait for the reader's checks before creating the next generation
+                await(barrier);
+            }
+        }, failures);
+        Thread reader = start(() -> {
+            for (int g = 0; g < generations; g++) {
+                await(barrier);
+                for (int i = 0; i < 8; i++) {
+                    String content = fs.getFileContent(file);
+                    expect(content == null || content.equals("g" + g),
+                            "generation " + g + " read " + content, failures);
+                }
+                await(barrier);
+                // The delete has returned: the cached node must not be found any more
+                expect(fs.getFileContent(file) == null, "stale read after generation " + g, failures);
+                expect(!fs.exists("/p/c"), "stale parent after generation " + g, failures);
+                await(barrier);
+            }
+        }, failures);
+        joinAll(List.of(writer, reader));
+
+        assertEquals("[]", failures.toString());
+        assertNoLocksHeld(fs);
+        assertTrue(fs.getPathCache().getHitCount() > 0);
+    }
+
+    @Test
+    void nestedCallKeepsTheOuterBatchLocked() {
+        FileSystem fs = new FileSystem();
+        fs.createPath("/a/x.txt");
+        ReentrantReadWriteLock rootLock = (ReentrantReadWriteLock) fs.getRoot().getLock();
+        int[] holdsAfterNestedCall = new int[1];
+
+        assertTrue(fs.inDirectory("/a", false, batch -> {
+            fs.setFileContent("/b.txt", "ignored");
+            fs.getFileContent("/a/x.txt");
+            holdsAfterNestedCall[0] = rootLock.getReadHoldCount();
+        }));
+
+        assertEquals(1, holdsAfterNestedCall[0]);
+        assertEquals(0, rootLock.getReadHoldCount());
+    }
+
+    @Test
+    void deletingFromASharedBatchFailsInsteadOfDeadlocking() {
+        FileSystem fs = new FileSystem();
+        fs.createPath("/a/b");
+
+        assertThrows(IllegalStateException.class,
+                () -> fs.inDirectory("/a", false, batch -> fs.deletePath("/a/b")));
+        // Everything was released, so the delete works outside the batch
+        assertTrue(fs.deletePath("/a/b"));
+        assertFalse(fs.exists("/a/b"));
+    }
+
+    private static Thread start(Runnable body, Queue<String> failures) {
+        Thread thread = new Thread(() -> {
+            try {
+                body.run();
+            } catch (RuntimeException e) {
+                failures.add(Thread.currentThread().getName() + " threw " + e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void joinAll(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(JOIN_TIMEOUT_MILLIS);
+            assertFalse(thread.isAlive(), thread.getName() + " still running, likely deadlocked");
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void expect(boolean condition, String what, Queue<String> failures) {
+        if (!condition)
+            failures.add(what);
+    }
+
+    // Every operation released what it took
+    private static void assertNoLocksHeld(FileSystem fs) {
+        ReentrantReadWriteLock rootLock = (ReentrantReadWriteLock) fs.getRoot().getLock();
+        assertEquals(0, rootLock.getReadLockCount());
+        assertFalse(rootLock.isWriteLocked());
+    }
+}
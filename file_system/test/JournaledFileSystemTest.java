@@ -0,0 +1,75 @@
+package file_system.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import file_system.journal.JournaledFileSystem;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class JournaledFileSystemTest {
+
+    @Test
+    void namesLongerThan64KbSurviveASnapshot() throws IOException {
+        Path directory = Files.createTempDirectory("journaled-fs");
+        String name = "/" + "n".repeat(70_000) + ".txt";
+        try (JournaledFileSystem fs = JournaledFileSystem.open(directory)) {
+            assertTrue(fs.createPath(name));
+            assertTrue(fs.setFileContent(name, "content"));
+            fs.snapshot();
+        }
+        try (JournaledFileSystem fs = JournaledFileSystem.open(directory)) {
+            assertEquals("content", fs.getFileContent(name));
+        }
+    }
+
+    @Test
+    void damagedSnapshotFallsBackToThePreviousOne() throws IOException {
+        Path directory = Files.createTempDirectory("journaled-fs");
+        try (JournaledFileSystem fs = JournaledFileSystem.open(directory)) {
+            fs.createPath("/a.txt");
+            fs.setFileContent("/a.txt", "first");
+            fs.snapshot();
+            fs.setFileContent("/a.txt", "second");
+            fs.snapshot();
+        }
+        // Flip one content byte of the newest snapshot; only the checksum can notice
+        List<Path> snapshots = snapshots(directory);
+        Path newest = snapshots.get(snapshots.size() - 1);
+        byte[] bytes = Files.readAllBytes(newest);
+        int at = indexOf(bytes, "second".getBytes());
+        try (RandomAccessFile file = new RandomAccessFile(newest.toFile(), "rw")) {
+            file.seek(at);
+            file.write('S');
+        }
+        try (JournaledFileSystem fs = JournaledFileSystem.open(directory)) {
+            // Rebuilt from the previous snapshot plus the journal after it
+            assertEquals("second", fs.getFileContent("/a.txt"));
+        }
+    }
+
+    private static List<Path> snapshots(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".snap")).sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        outer:
+        for (int i = 0; i <= haystack.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j])
+                    continue outer;
+            }
+            return i;
+        }
+        throw new AssertionError("not found");
+    }
+}
@@ -32,6 +32,9 @@ public class Main {
         Logger logger = Logger.getInstance(LogLevel.INFO, consoleAppender);
         logger.setConfig(new LoggerConfig(LogLevel.INFO, fileAppender));
         logger.error("Using singleton Logger - Error message");
+
+        // Flush buffered lines and release the log file
+        fileAppender.close();
     }
 
     private static LogHandler getChainOfLoggers(LogAppender appender) {
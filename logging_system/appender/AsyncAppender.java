@@ -0,0 +1,228 @@
+package logging_system.appender;
+
+import logging_system.enums.LogLevel;
+import logging_system.enums.OverflowPolicy;
+import logging_system.message.LogMessage;
+import logging_system.metrics.Counter;
+import logging_system.metrics.MetricsRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+// Decorator that moves the wrapped appender off the caller thread.
+// Callers only publish into a ring buffer; a dedicated consumer thread drains it.
+public class AsyncAppender implements LogAppender {
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final int SPINS_BEFORE_PARK = 100;
+    // How long a producer waits for a free slot before retrying under BLOCK
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final Predicate<LogMessage> IS_DEBUG = queued -> queued.getLevel() == LogLevel.DEBUG;
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final LogAppender delegate;
+    private final RingBuffer<LogMessage> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final Thread consumer;
+    private final LongAdder enqueuedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder appendedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private volatile boolean lastAppendFailed;
+    private volatile Throwable lastError;
+    private volatile boolean running = true;
+    // Set while the consumer is about to park or parked; producers then unpark it
+    private volatile boolean consumerIdle;
+    private final String metricPrefix;
+    private final Counter blockedNanos;
+
+    public AsyncAppender(LogAppender delegate) {
+        this(delegate, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    public AsyncAppender(LogAppender delegate, int capacity, OverflowPolicy overflowPolicy) {
+        this.delegate = delegate;
+        this.buffer = new RingBuffer<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.consumer = new Thread(this::drain, "async-appender-" + delegate.getClass().getSimpleName());
+        this.consumer.setDaemon(true);
+
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        this.metricPrefix = "appender.async." + delegate.getClass().getSimpleName() + "#"
+                + INSTANCES.incrementAndGet() + ".";
+        metrics.gauge(metricPrefix + "queueDepth", this::getQueueSize);
+        metrics.gauge(metricPrefix + "enqueued", this::getEnqueuedCount);
+        metrics.gauge(metricPrefix + "dropped", this::getDroppedCount);
+        metrics.gauge(metricPrefix + "failed", this::getFailedCount);
+        this.blockedNanos = metrics.counter(metricPrefix + "blockedNanos");
+
+        this.consumer.start();
+    }
+
+    @Override
+    public void append(LogMessage logMessage) {
+        // The consumer must not read the caller's arguments after append returns
+        logMessage.freeze();
+        if (!running) {
+            droppedCount.increment();
+            return;
+        }
+        if (buffer.offer(logMessage)) {
+            enqueuedCount.increment();
+            wakeConsumer();
+            return;
+        }
+        // Buffer is full, resolve according to the overflow policy
+        switch (overflowPolicy) {
+            case BLOCK:
+                waitForSlot(logMessage);
+                break;
+            case DROP_DEBUG_FIRST:
+                if (logMessage.getLevel() == LogLevel.DEBUG) {
+                    droppedCount.increment();
+                    break;
+                }
+                // Give up a queued DEBUG message before anything more important. The newest
+                // one is replaced in place, so the message only overtakes what was queued after it.
+                if (buffer.replaceNewest(IS_DEBUG, logMessage) != null) {
+                    droppedCount.increment();
+                    enqueuedCount.increment();
+                    break;
+                }
+                evictOldest(logMessage);
+                break;
+            case DROP_OLDEST:
+            default:
+                evictOldest(logMessage);
+                break;
+        }
+    }
+
+    private void waitForSlot(LogMessage logMessage) {
+        long start = System.nanoTime();
+        int spins = 0;
+        try {
+            while (!buffer.offer(logMessage)) {
+                if (!running) {
+                    droppedCount.increment();
+                    return;
+                }
+                if (++spins < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+            enqueuedCount.increment();
+            wakeConsumer();
+        } finally {
+            blockedNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private void evictOldest(LogMessage logMessage) {
+        while (!buffer.offer(logMessage)) {
+            if (buffer.poll() != null) {
+                droppedCount.increment();
+            }
+        }
+        enqueuedCount.increment();
+        wakeConsumer();
+    }
+
+    private void wakeConsumer() {
+        if (consumerIdle)
+            LockSupport.unpark(consumer);
+    }
+
+    // Consumer loop: spin briefly when idle, then park until a producer or close() wakes it
+    private void drain() {
+        int idleSpins = 0;
+        while (running || !buffer.isEmpty()) {
+            LogMessage logMessage = buffer.poll();
+            if (logMessage != null) {
+                idleSpins = 0;
+                appendSafely(logMessage);
+            } else if (++idleSpins < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+            } else {
+                consumerIdle = true;
+                // Checked after announcing, so a producer that enqueued before seeing the
+                // flag is noticed here and one that enqueued after it unparks us
+                if (running && buffer.isEmpty())
+                    LockSupport.park(this);
+                consumerIdle = false;
+                idleSpins = 0;
+            }
+        }
+    }
+
+    private void appendSafely(LogMessage logMessage) {
+        try {
+            delegate.append(logMessage);
+            appendedCount.increment();
+            lastAppendFailed = false;
+        } catch (RuntimeException e) {
+            // A failing sink must not kill the consumer thread
+            failedCount.increment();
+            lastError = e;
+            lastAppendFailed = true;
+        }
+    }
+
+    // Stops accepting messages, drains what is queued and closes the wrapped appender
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        MetricsRegistry.getDefault().removeAll(metricPrefix);
+        delegate.close();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueuedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getAppendedCount() {
+        return appendedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public Throwable getLastError() {
+        return lastError;
+    }
+
+    // Healthy while the consumer is running and the wrapped appender's last call succeeded
+    public boolean isHealthy() {
+        return consumer.isAlive() && !lastAppendFailed;
+    }
+
+    public LogAppender getDelegate() {
+        return delegate;
+    }
+
+    public int getQueueSize() {
+        return buffer.size();
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+}
@@ -0,0 +1,67 @@
+package logging_system.appender;
+
+import logging_system.encoding.BinaryLogEncoder;
+import logging_system.enums.LogLevel;
+import logging_system.message.LogMessage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Writes messages in the compact binary format instead of formatted text.
+// Use BinaryLogDecoder to turn the file back into text or JSON.
+public class BinaryFileAppender implements LogAppender {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final BinaryLogEncoder encoder;
+    private boolean closed;
+
+    public BinaryFileAppender(String filePath) {
+        try {
+            this.out = new BufferedOutputStream(Files.newOutputStream(Paths.get(filePath),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND), BUFFER_SIZE);
+            this.encoder = new BinaryLogEncoder(out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open log file " + filePath, e);
+        }
+    }
+
+    @Override
+    public synchronized void append(LogMessage logMessage) {
+        if (closed)
+            return;
+        try {
+            encoder.encode(logMessage);
+            if (logMessage.getLevel() == LogLevel.ERROR) {
+                encoder.flush();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public synchronized void flush() {
+        if (closed)
+            return;
+        try {
+            encoder.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
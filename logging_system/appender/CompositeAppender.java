@@ -0,0 +1,59 @@
+package logging_system.appender;
+
+import logging_system.enums.OverflowPolicy;
+import logging_system.message.LogMessage;
+import java.util.ArrayList;
+import java.util.List;
+
+// Fans every message out to several appenders (Composite pattern).
+// Each sink gets its own bounded queue and worker thread, so a slow or failing
+// sink only fills its own queue and never stalls the caller or the other sinks.
+public class CompositeAppender implements LogAppender {
+    private static final int DEFAULT_CAPACITY = 8192;
+
+    private final AsyncAppender[] sinks;
+
+    public CompositeAppender(LogAppender... appenders) {
+        // Dropping is the default: blocking would let one slow sink stall every caller
+        this(DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST, appenders);
+    }
+
+    public CompositeAppender(int capacityPerSink, OverflowPolicy overflowPolicy, LogAppender... appenders) {
+        this.sinks = new AsyncAppender[appenders.length];
+        for (int i = 0; i < appenders.length; i++) {
+            sinks[i] = new AsyncAppender(appenders[i], capacityPerSink, overflowPolicy);
+        }
+    }
+
+    @Override
+    public void append(LogMessage logMessage) {
+        for (AsyncAppender sink : sinks) {
+            sink.append(logMessage);
+        }
+    }
+
+    public List<SinkStatus> getSinkStatuses() {
+        List<SinkStatus> statuses = new ArrayList<>(sinks.length);
+        for (int i = 0; i < sinks.length; i++) {
+            String name = i + ":" + sinks[i].getDelegate().getClass().getSimpleName();
+            statuses.add(new SinkStatus(name, sinks[i]));
+        }
+        return statuses;
+    }
+
+    public boolean isHealthy() {
+        for (AsyncAppender sink : sinks) {
+            if (!sink.isHealthy())
+                return false;
+        }
+        return true;
+    }
+
+    // Drains and closes every sink
+    @Override
+    public void close() {
+        for (AsyncAppender sink : sinks) {
+            sink.close();
+        }
+    }
+}
@@ -1,22 +1,221 @@
 package logging_system.appender;
 
+import logging_system.enums.LogLevel;
 import logging_system.message.LogMessage;
-import java.io.FileWriter;
+import logging_system.metrics.Counter;
+import logging_system.metrics.Histogram;
+import logging_system.metrics.MetricsRegistry;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
+// Keeps one channel open for the lifetime of the appender and batches lines
+// into a reusable direct buffer. The buffer is flushed when it fills up, on a
+// timer, or immediately for ERROR messages. Files roll by size and by day.
 public class FileAppender implements LogAppender {
-    private final String filePath;
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    private static final long DEFAULT_MAX_FILE_SIZE = 100L * 1024 * 1024;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Path filePath;
+    private final long maxFileSize;
+    private final boolean compressRolledFiles;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ScheduledExecutorService scheduler;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final String metricPrefix;
+    private final Counter bytesWritten;
+    private final Histogram flushNanos;
+
+    private FileChannel channel;
+    private long fileSize;
+    private LocalDate currentDay;
+    private long nextDayStartMillis;
+    private boolean closed;
 
     public FileAppender(String filePath) {
-        this.filePath = filePath;
+        this(filePath, DEFAULT_BUFFER_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_FILE_SIZE, false);
+    }
+
+    public FileAppender(String filePath, int bufferSize, long flushIntervalMillis, long maxFileSize,
+            boolean compressRolledFiles) {
+        this.filePath = Paths.get(filePath);
+        this.maxFileSize = maxFileSize;
+        this.compressRolledFiles = compressRolledFiles;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        // Keyed by the full path: two logs named app.log in different directories are
+        // different files
+        this.metricPrefix = "appender.file." + this.filePath.toAbsolutePath().normalize() + ".";
+        this.bytesWritten = metrics.counter(metricPrefix + "bytesWritten");
+        this.flushNanos = metrics.histogram(metricPrefix + "flushNanos");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "file-appender-" + this.filePath.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            openChannel(System.currentTimeMillis());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open log file " + filePath, e);
+        }
+        // Periodic flush so quiet periods do not leave lines sitting in the buffer
+        scheduler.scheduleAtFixedRate(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
     }
 
     @Override
-    public void append(LogMessage logMessage) {
-        try (FileWriter writer = new FileWriter(filePath, true)) {
-            writer.write(logMessage.toString() + "n"); // Write log to file
+    public synchronized void append(LogMessage logMessage) {
+        if (closed)
+            return;
+        try {
+            String line = logMessage.toString();
+            if (logMessage.getTimestamp() >= nextDayStartMillis
+                    || fileSize + buffer.position() + line.length() > maxFileSize) {
+                roll(logMessage.getTimestamp());
+            }
+            encode(line);
+            encode(LINE_SEPARATOR);
+            if (logMessage.getLevel() == LogLevel.ERROR) {
+                flushBuffer();
+            }
         } catch (IOException e) {
             e.printStackTrace(); // Print error if file writing fails
         }
     }
-}
\ No newline at end of file
+
+    // Encodes straight into the direct buffer, draining it whenever it fills up
+    private void encode(String text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                flushBuffer();
+            } else {
+                break;
+            }
+        }
+    }
+
+    public synchronized void flush() {
+        if (closed)
+            return;
+        try {
+            flushBuffer();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (buffer.position() == 0)
+            return;
+        long start = System.nanoTime();
+        buffer.flip();
+        int bytes = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        fileSize += bytes;
+        bytesWritten.add(bytes);
+        flushNanos.record(System.nanoTime() - start);
+    }
+
+    private void openChannel(long timestamp) throws IOException {
+        channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        fileSize = channel.size();
+        currentDay = Instant.ofEpochMilli(timestamp).atZone(zone).toLocalDate();
+        nextDayStartMillis = currentDay.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    // Moves the current file aside as <name>.<day>.<n> and starts a fresh one
+    private void roll(long timestamp) throws IOException {
+        flushBuffer();
+        channel.close();
+        if (fileSize > 0) {
+            Path rolled = nextRolledPath();
+            Files.move(filePath, rolled);
+            if (compressRolledFiles) {
+                scheduler.execute(() -> compress(rolled));
+            }
+        }
+        openChannel(timestamp);
+    }
+
+    private Path nextRolledPath() {
+        String prefix = filePath.getFileName() + "." + currentDay + ".";
+        int index = 1;
+        Path candidate = filePath.resolveSibling(prefix + index);
+        while (Files.exists(candidate) || Files.exists(candidate.resolveSibling(candidate.getFileName() + ".gz"))) {
+            index++;
+            candidate = filePath.resolveSibling(prefix + index);
+        }
+        return candidate;
+    }
+
+    private void compress(Path rolled) {
+        Path target = rolled.resolveSibling(rolled.getFileName() + ".gz");
+        try (InputStream in = Files.newInputStream(rolled);
+                OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        try {
+            Files.delete(rolled);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed)
+                return;
+            try {
+                flushBuffer();
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            closed = true;
+        }
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        metrics.remove(metricPrefix + "bytesWritten");
+        metrics.remove(metricPrefix + "flushNanos");
+        // Let pending compressions finish before the scheduler goes away
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public String getFilePath() {
+        return filePath.toString();
+    }
+}
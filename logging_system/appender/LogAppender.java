@@ -4,4 +4,8 @@ import logging_system.message.LogMessage;
 
 public interface LogAppender {
     void append(LogMessage logMessage);
+
+    // Releases any resources held by the appender (threads, files, buffers)
+    default void close() {
+    }
 }
@@ -0,0 +1,235 @@
+package logging_system.appender;
+
+import logging_system.enums.LogLevel;
+import logging_system.message.LogMessage;
+import logging_system.metrics.Counter;
+import logging_system.metrics.MetricsRegistry;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Writes records straight into preallocated memory-mapped segment files.
+//
+// Segment layout: [int magic] followed by records of
+// [int length][int crc32][byte level][byte precisionDigits][long timestampNanos]
+// [long sequence][utf-8 message]
+// where length covers everything after the crc. Segments written before the timestamp
+// carried nanoseconds have the LEGACY_MAGIC and [byte level][long timestampMillis]
+// instead; recover() reads both. The length field is
+// written last and acts as the commit marker: a zero length means the record
+// (and everything after it) was never completed, a bad crc means it was torn.
+public class MappedFileAppender implements LogAppender {
+    private static final int MAGIC = 0x4C4F4732; // "LOG2"
+    private static final int LEGACY_MAGIC = 0x4C4F4753; // "LOGS"
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int RECORD_HEADER_SIZE = 4 + 4; // length + crc
+    private static final int RECORD_FIXED_BODY_SIZE = 1 + 1 + 8 + 8; // level + precision + timestamp + sequence
+    private static final int LEGACY_FIXED_BODY_SIZE = 1 + 8; // level + timestamp
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final CRC32 crc = new CRC32();
+    private final String bytesWrittenMetric;
+    private final Counter bytesWritten;
+
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private boolean closed;
+
+    public MappedFileAppender(String directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public MappedFileAppender(String directory, int segmentSize) {
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        // Keyed by the full path, like FileAppender's metrics
+        this.bytesWrittenMetric = "appender.mapped." + this.directory.toAbsolutePath().normalize() + ".bytesWritten";
+        this.bytesWritten = MetricsRegistry.getDefault().counter(bytesWrittenMetric);
+        try {
+            Files.createDirectories(this.directory);
+            // Never append into an existing segment, its tail may be torn
+            List<Path> existing = listSegments(this.directory);
+            this.segmentIndex = existing.isEmpty() ? 0 : parseIndex(existing.get(existing.size() - 1));
+            mapNextSegment();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open log segments in " + directory, e);
+        }
+    }
+
+    @Override
+    public synchronized void append(LogMessage logMessage) {
+        if (closed)
+            return;
+        // A null message is written as "null", like the other appenders print it
+        String message = String.valueOf(logMessage.getMessage());
+        // Checked before anything is written: rotating for a record that can't fit even
+        // an empty segment would waste the rest of the current one
+        if (!fitsInEmptySegment(message)) {
+            System.err.println("Log message larger than segment size, dropped");
+            return;
+        }
+        try {
+            if (!tryWrite(logMessage, message)) {
+                mapNextSegment();
+                tryWrite(logMessage, message);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Room in a fresh segment: the magic, the record and the next record's zero length
+    private boolean fitsInEmptySegment(String message) {
+        long fixed = 4L + RECORD_HEADER_SIZE + RECORD_FIXED_BODY_SIZE + 4;
+        // Cheap worst case first; the exact size is only computed for messages near the limit
+        if (fixed + (long) (encoder.maxBytesPerChar() * message.length()) <= segmentSize)
+            return true;
+        return fixed + message.getBytes(StandardCharsets.UTF_8).length <= segmentSize;
+    }
+
+    // Returns false if the record does not fit in the rest of the segment
+    private boolean tryWrite(LogMessage logMessage, String message) {
+        int start = segment.position();
+        int bodyStart = start + RECORD_HEADER_SIZE;
+        if (bodyStart + RECORD_FIXED_BODY_SIZE + 4 > segmentSize) {
+            return false;
+        }
+        segment.position(bodyStart);
+        segment.put((byte) logMessage.getLevel().getValue());
+        segment.put((byte) logMessage.getPrecisionDigits());
+        segment.putLong(logMessage.getTimestampNanos());
+        segment.putLong(logMessage.getSequence());
+        encoder.reset();
+        CoderResult result = encoder.encode(CharBuffer.wrap(message), segment, true);
+        // Keep room for the next record's zero length so readers know where to stop
+        if (result.isOverflow() || segment.remaining() < 4) {
+            segment.position(start);
+            return false;
+        }
+        int end = segment.position();
+        int length = end - bodyStart;
+
+        ByteBuffer body = segment.duplicate();
+        body.position(bodyStart).limit(end);
+        crc.reset();
+        crc.update(body);
+        segment.putInt(start + 4, (int) crc.getValue());
+        // Commit marker goes last
+        segment.putInt(start, length);
+        bytesWritten.add(RECORD_HEADER_SIZE + length);
+        return true;
+    }
+
+    private void mapNextSegment() throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        segmentIndex++;
+        Path path = directory.resolve(String.format("%010d%s", segmentIndex, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // Mapping past the end of the file preallocates the whole segment (zero filled)
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segment.putInt(MAGIC);
+    }
+
+    // Forces written records to the storage device
+    public synchronized void force() {
+        if (!closed) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed)
+            return;
+        segment.force();
+        closed = true;
+        MetricsRegistry.getDefault().remove(bytesWrittenMetric);
+    }
+
+    // Reads back every fully committed record, oldest segment first
+    public static List<LogMessage> recover(String directory) throws IOException {
+        List<LogMessage> messages = new ArrayList<>();
+        for (Path path : listSegments(Paths.get(directory))) {
+            recoverSegment(path, messages);
+        }
+        return messages;
+    }
+
+    private static void recoverSegment(Path path, List<LogMessage> messages) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.remaining() < 4)
+            return;
+        int magic = data.getInt();
+        if (magic != MAGIC && magic != LEGACY_MAGIC)
+            return;
+        boolean legacy = magic == LEGACY_MAGIC;
+        int fixedBodySize = legacy ? LEGACY_FIXED_BODY_SIZE : RECORD_FIXED_BODY_SIZE;
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        CRC32 checksum = new CRC32();
+        while (data.remaining() >= RECORD_HEADER_SIZE) {
+            int start = data.position();
+            int length = data.getInt();
+            if (length < fixedBodySize || length > data.remaining() - 4)
+                return; // Uncommitted or corrupt, nothing after it can be trusted
+            int expectedCrc = data.getInt();
+            ByteBuffer body = data.slice().limit(length);
+            checksum.reset();
+            checksum.update(body.duplicate());
+            if ((int) checksum.getValue() != expectedCrc)
+                return;
+            LogLevel level = LogLevel.fromValue(body.get());
+            int precisionDigits = legacy ? 3 : body.get();
+            long timestampNanos = legacy ? body.getLong() * 1_000_000L : body.getLong();
+            long sequence = legacy ? 0 : body.getLong();
+            String message;
+            try {
+                message = decoder.decode(body).toString();
+            } catch (CharacterCodingException e) {
+                return;
+            }
+            messages.add(new LogMessage(level, message, timestampNanos, sequence, precisionDigits));
+            data.position(start + RECORD_HEADER_SIZE + length);
+        }
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory))
+            return new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int parseIndex(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
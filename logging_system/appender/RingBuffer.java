@@ -0,0 +1,100 @@
+package logging_system.appender;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+// Bounded lock-free multi-producer/multi-consumer ring buffer.
+// Every slot carries a sequence number telling producers and consumers
+// whether the slot is free to write or ready to read, so no locks are needed.
+public class RingBuffer<E> {
+    private final int mask;
+    // Atomic so replaceNewest can swap a queued element without racing poll
+    private final AtomicReferenceArray<Object> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong(); // next slot to read
+    private final AtomicLong tail = new AtomicLong(); // next slot to write
+
+    public RingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        // Round up to a power of two so the slot index is a cheap mask
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // Returns false instead of waiting when the buffer is full
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    // Publish the element to consumers
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+    }
+
+    // Returns null when the buffer is empty
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = (E) elements.getAndSet(index, null);
+                    // Hand the slot back to producers for the next lap
+                    sequences.lazySet(index, position + mask + 1);
+                    return element;
+                }
+            } else if (diff < 0) {
+                return null;
+            }
+        }
+    }
+
+    // Swaps the newest queued element that matches for replacement, leaving everything
+    // else where it is. Returns the replaced element, or null if none matched.
+    @SuppressWarnings("unchecked")
+    public E replaceNewest(Predicate<? super E> matcher, E replacement) {
+        long newest = tail.get() - 1;
+        long oldest = Math.max(head.get(), newest - mask);
+        for (long position = newest; position >= oldest; position--) {
+            int index = (int) (position & mask);
+            E element = (E) elements.get(index);
+            // A consumer that takes it first leaves null behind and the CAS fails
+            if (element != null && matcher.test(element) && elements.compareAndSet(index, element, replacement))
+                return element;
+        }
+        return null;
+    }
+
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,69 @@
+package logging_system.appender;
+
+// Point-in-time view of one CompositeAppender sink
+public class SinkStatus {
+    private final String name;
+    private final boolean healthy;
+    private final int backlog;
+    private final int capacity;
+    private final long enqueuedCount;
+    private final long appendedCount;
+    private final long droppedCount;
+    private final long failedCount;
+    private final Throwable lastError;
+
+    SinkStatus(String name, AsyncAppender sink) {
+        this.name = name;
+        this.healthy = sink.isHealthy();
+        this.backlog = sink.getQueueSize();
+        this.capacity = sink.getCapacity();
+        this.enqueuedCount = sink.getEnqueuedCount();
+        this.appendedCount = sink.getAppendedCount();
+        this.droppedCount = sink.getDroppedCount();
+        this.failedCount = sink.getFailedCount();
+        this.lastError = sink.getLastError();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getEnqueuedCount() {
+        return enqueuedCount;
+    }
+
+    public long getAppendedCount() {
+        return appendedCount;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public Throwable getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public String toString() {
+        return name + (healthy ? " UP" : " DOWN") + " backlog=" + backlog + "/" + capacity
+                + " enqueued=" + enqueuedCount + " appended=" + appendedCount
+                + " dropped=" + droppedCount + " failed=" + failedCount;
+    }
+}
@@ -0,0 +1,86 @@
+package logging_system.benchmark;
+
+import logging_system.appender.AsyncAppender;
+import logging_system.appender.ConsoleAppender;
+import logging_system.appender.FileAppender;
+import logging_system.appender.LogAppender;
+import logging_system.enums.LogLevel;
+import logging_system.enums.OverflowPolicy;
+import logging_system.message.LogMessage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Appender cost per message. All threads share the same appenders, so running with
+// -t 1/8/64 (see LoggingBenchmarkSuite) shows how each one behaves under contention.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AppenderBenchmark {
+    private PrintStream originalOut;
+    private Path directory;
+    private LogAppender consoleAppender;
+    private LogAppender fileAppender;
+    private LogAppender asyncFileAppender;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // ConsoleAppender prints through System.out; discard the bytes so the terminal
+        // isn't part of the measurement, only formatting and PrintStream locking are
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        directory = Files.createTempDirectory("appender-bench");
+        consoleAppender = new ConsoleAppender();
+        fileAppender = new FileAppender(directory.resolve("sync.log").toString(), 64 * 1024, 1000,
+                Long.MAX_VALUE, false);
+        asyncFileAppender = new AsyncAppender(new FileAppender(directory.resolve("async.log").toString(),
+                64 * 1024, 1000, Long.MAX_VALUE, false), 65536, OverflowPolicy.DROP_OLDEST);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        consoleAppender.close();
+        fileAppender.close();
+        asyncFileAppender.close();
+        System.setOut(originalOut);
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void consoleAppender() {
+        consoleAppender.append(new LogMessage(LogLevel.INFO, "Order {} placed by {}", new Object[] { 42, "alice" }));
+    }
+
+    @Benchmark
+    public void fileAppender() {
+        fileAppender.append(new LogMessage(LogLevel.INFO, "Order {} placed by {}", new Object[] { 42, "alice" }));
+    }
+
+    @Benchmark
+    public void asyncFileAppender() {
+        asyncFileAppender.append(new LogMessage(LogLevel.INFO, "Order {} placed by {}", new Object[] { 42, "alice" }));
+    }
+}
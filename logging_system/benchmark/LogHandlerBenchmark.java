@@ -0,0 +1,71 @@
+package logging_system.benchmark;
+
+import logging_system.handler.LogDispatcher;
+import logging_system.handler.LogHandler;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Chain walk vs precomputed dispatch table. Messages target the last handler,
+// which is the worst case for the chain and makes depth visible.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+// Thread-scoped, so each thread's handlers consume into its own Blackhole
+@State(Scope.Thread)
+public class LogHandlerBenchmark {
+    @Param({ "3", "20" })
+    private int depth;
+
+    private LogHandler chain;
+    private LogDispatcher dispatcher;
+
+    // Consumes the message instead of printing it, so only dispatch cost is measured
+    private static class BlackholeHandler extends LogHandler {
+        private final Blackhole blackhole;
+
+        BlackholeHandler(int level, Blackhole blackhole) {
+            super(level, null);
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        protected void write(String message) {
+            blackhole.consume(message);
+        }
+    }
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        chain = new BlackholeHandler(1, blackhole);
+        LogHandler last = chain;
+        for (int level = 2; level <= depth; level++) {
+            LogHandler next = new BlackholeHandler(level, blackhole);
+            last.setNextLogger(next);
+            last = next;
+        }
+        dispatcher = new LogDispatcher(chain);
+    }
+
+    @Benchmark
+    public void chainWalk() {
+        chain.logMessage(depth, "benchmark message");
+    }
+
+    @Benchmark
+    public void dispatchTable() {
+        dispatcher.logMessage(depth, "benchmark message");
+    }
+}
@@ -0,0 +1,72 @@
+package logging_system.benchmark;
+
+import logging_system.appender.LogAppender;
+import logging_system.enums.LogLevel;
+import logging_system.logger.Logger;
+import logging_system.message.LogMessage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Compares the cost of disabled DEBUG calls written in different styles.
+// Run with "-prof gc" to confirm the guarded and parameterized variants allocate nothing.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+// Thread-scoped, so each thread renders into its own Blackhole
+@State(Scope.Thread)
+public class LoggerBenchmark {
+    private Logger logger;
+    private int orderId = 42;
+    private String customer = "alice";
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        // Renders every message so enabled calls include the formatting cost
+        LogAppender renderingAppender = new LogAppender() {
+            @Override
+            public void append(LogMessage logMessage) {
+                blackhole.consume(logMessage.getMessage());
+            }
+        };
+        logger = Logger.getInstance(LogLevel.INFO, renderingAppender);
+    }
+
+    @Benchmark
+    public void disabledDebugConcatenated() {
+        logger.debug("Order " + orderId + " placed by " + customer);
+    }
+
+    @Benchmark
+    public void disabledDebugParameterized() {
+        logger.debug("Order {} placed by {}", orderId, customer);
+    }
+
+    @Benchmark
+    public void disabledDebugGuarded() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Order " + orderId + " placed by " + customer);
+        }
+    }
+
+    @Benchmark
+    public void enabledInfoConcatenated() {
+        logger.info("Order " + orderId + " placed by " + customer);
+    }
+
+    @Benchmark
+    public void enabledInfoParameterized() {
+        logger.info("Order {} placed by {}", orderId, customer);
+    }
+}
@@ -0,0 +1,51 @@
+package logging_system.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs every logging benchmark with 1, 8 and 64 producer threads and writes one JSON
+// result file per run, so numbers can be compared between commits.
+//
+// Each thread count is measured twice:
+//   throughput  -> ops/s
+//   sample time -> p50 / p99 / p99.9 latency per call
+// The GC profiler adds gc.alloc.rate.norm, the bytes allocated per operation.
+public class LoggingBenchmarkSuite {
+    private static final int[] THREAD_COUNTS = { 1, 8, 64 };
+    private static final String BENCHMARKS = "logging_system\\.benchmark\\..*Benchmark";
+
+    public static void main(String[] args) throws RunnerException {
+        String outputDir = args.length > 0 ? args[0] : ".";
+        for (int threads : THREAD_COUNTS) {
+            run(throughput(threads).result(outputDir + "/logging-throughput-" + threads + "t.json").build());
+            run(latency(threads).result(outputDir + "/logging-latency-" + threads + "t.json").build());
+        }
+    }
+
+    private static ChainedOptionsBuilder common(int threads) {
+        return new OptionsBuilder()
+                .include(BENCHMARKS)
+                .threads(threads)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON);
+    }
+
+    private static ChainedOptionsBuilder throughput(int threads) {
+        return common(threads).mode(Mode.Throughput).timeUnit(TimeUnit.SECONDS);
+    }
+
+    private static ChainedOptionsBuilder latency(int threads) {
+        return common(threads).mode(Mode.SampleTime).timeUnit(TimeUnit.NANOSECONDS);
+    }
+
+    private static void run(Options options) throws RunnerException {
+        new Runner(options).run();
+    }
+}
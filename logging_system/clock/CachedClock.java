@@ -0,0 +1,43 @@
+package logging_system.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Coarse clock whose time is refreshed by a ticker thread, so reading it is a
+// single volatile load instead of a call into the OS on every log message.
+// Timestamps are accurate to roughly the tick interval.
+public class CachedClock implements LogClock {
+    private final long tickNanos;
+    private final Thread ticker;
+    private volatile long cachedNanos;
+    private volatile boolean running = true;
+
+    public CachedClock() {
+        this(1);
+    }
+
+    public CachedClock(long tickMillis) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.cachedNanos = System.currentTimeMillis() * 1_000_000L;
+        this.ticker = new Thread(this::tick, "log-clock-ticker");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    private void tick() {
+        while (running) {
+            cachedNanos = System.currentTimeMillis() * 1_000_000L;
+            LockSupport.parkNanos(tickNanos);
+        }
+    }
+
+    @Override
+    public long epochNanos() {
+        return cachedNanos;
+    }
+
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+}
@@ -0,0 +1,26 @@
+package logging_system.clock;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Process-wide clock used to stamp LogMessages, plus the global ordering sequence
+public final class Clocks {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static volatile LogClock clock = new SystemClock();
+
+    private Clocks() {
+    }
+
+    public static LogClock get() {
+        return clock;
+    }
+
+    public static void set(LogClock logClock) {
+        clock = logClock;
+    }
+
+    // Strictly increasing across all threads, so messages stamped within the same
+    // millisecond can still be merged back into the order they were logged
+    public static long nextSequence() {
+        return SEQUENCE.incrementAndGet();
+    }
+}
@@ -0,0 +1,11 @@
+package logging_system.clock;
+
+// Source of LogMessage timestamps, in nanoseconds since the epoch
+public interface LogClock {
+    long epochNanos();
+
+    // Fraction digits worth printing: 3 for millisecond clocks, more for precise ones
+    default int precisionDigits() {
+        return 3;
+    }
+}
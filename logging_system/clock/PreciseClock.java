@@ -0,0 +1,17 @@
+package logging_system.clock;
+
+import java.time.Instant;
+
+// Instant-precision clock (microseconds or better on most platforms)
+public class PreciseClock implements LogClock {
+    @Override
+    public long epochNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    @Override
+    public int precisionDigits() {
+        return 6;
+    }
+}
@@ -0,0 +1,9 @@
+package logging_system.clock;
+
+// Millisecond clock backed by System.currentTimeMillis()
+public class SystemClock implements LogClock {
+    @Override
+    public long epochNanos() {
+        return System.currentTimeMillis() * 1_000_000L;
+    }
+}
@@ -0,0 +1,52 @@
+package logging_system.clock;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+// Formats timestamps as "yyyy-MM-dd HH:mm:ss.fff".
+// The date/time part only changes once a second, so it is formatted once and
+// cached; each message only appends its fraction digits to the cached prefix.
+public final class TimestampFormatter {
+    private static final DateTimeFormatter SECOND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.")
+            .withZone(ZoneId.systemDefault());
+
+    // Immutable pair, swapped as a whole so readers never see a mixed second/prefix
+    private static final class CachedSecond {
+        final long epochSecond;
+        final String prefix;
+
+        CachedSecond(long epochSecond, String prefix) {
+            this.epochSecond = epochSecond;
+            this.prefix = prefix;
+        }
+    }
+
+    private static volatile CachedSecond cached = new CachedSecond(Long.MIN_VALUE, "");
+
+    private TimestampFormatter() {
+    }
+
+    public static void append(StringBuilder builder, long epochNanos, int digits) {
+        long epochSecond = Math.floorDiv(epochNanos, 1_000_000_000L);
+        long nanoOfSecond = Math.floorMod(epochNanos, 1_000_000_000L);
+        CachedSecond second = cached;
+        if (second.epochSecond != epochSecond) {
+            second = new CachedSecond(epochSecond, SECOND_FORMAT.format(Instant.ofEpochSecond(epochSecond)));
+            cached = second;
+        }
+        builder.append(second.prefix);
+        // Print the leading digits of the 9-digit nano-of-second, zero padded
+        long divisor = 100_000_000L;
+        for (int i = 0; i < digits && i < 9; i++) {
+            builder.append((char) ('0' + (nanoOfSecond / divisor) % 10));
+            divisor /= 10;
+        }
+    }
+
+    public static String format(long epochNanos, int digits) {
+        StringBuilder builder = new StringBuilder(32);
+        append(builder, epochNanos, digits);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,180 @@
+package logging_system.config;
+
+import logging_system.appender.ConsoleAppender;
+import logging_system.appender.FileAppender;
+import logging_system.appender.LogAppender;
+import logging_system.enums.LogLevel;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Watches a properties file and publishes a new LoggerConfig snapshot whenever it changes.
+//
+//   level=INFO
+//   appender=console            (or file:logs.txt)
+//   logger.com.shop.payments=DEBUG
+//
+// Loggers keep logging through the old snapshot until the new one is published.
+// A replaced appender is closed after a grace period so in-flight calls can finish.
+public class ConfigReloader {
+    private static final String LEVEL_KEY = "level";
+    private static final String APPENDER_KEY = "appender";
+    private static final String LOGGER_PREFIX = "logger.";
+    private static final long APPENDER_CLOSE_DELAY_SECONDS = 5;
+
+    private final Path configFile;
+    private final Consumer<LoggerConfig> listener;
+    private volatile LoggerConfig currentConfig;
+    private String currentAppenderSpec;
+    private WatchService watchService;
+    private Thread watcher;
+
+    public ConfigReloader(String configFile, LoggerConfig initialConfig, Consumer<LoggerConfig> listener) {
+        this.configFile = Paths.get(configFile).toAbsolutePath();
+        this.currentConfig = initialConfig;
+        this.listener = listener;
+    }
+
+    // Applies the file once and then keeps watching it on a daemon thread
+    public synchronized void start() throws IOException {
+        reload();
+        watchService = FileSystems.getDefault().newWatchService();
+        configFile.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        watcher = new Thread(this::watch, "logger-config-reloader");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (context instanceof Path && configFile.getFileName().equals(context)) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (RuntimeException e) {
+                        // Keep watching; the next change may fix whatever went wrong
+                        System.err.println("Logging config reload failed for " + configFile + ": " + e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Reloader stopped
+        }
+    }
+
+    // Re-reads the file and publishes the result; a broken file keeps the current config
+    public synchronized void reload() {
+        if (!Files.exists(configFile))
+            return;
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(configFile)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        LoggerConfig previous = currentConfig;
+        LoggerConfig next;
+        String appenderSpec = properties.getProperty(APPENDER_KEY);
+        try {
+            next = parse(properties, previous, appenderSpec);
+        } catch (RuntimeException e) {
+            // An unknown level or appender, or a file appender whose path can't be opened
+            System.err.println("Ignoring invalid logging config " + configFile + ": " + e.getMessage());
+            return;
+        }
+        boolean appenderChanged = next.getLogAppender() != previous.getLogAppender();
+        currentConfig = next;
+        try {
+            listener.accept(next);
+        } catch (RuntimeException e) {
+            // Not published, so nothing logs through the new appender yet
+            currentConfig = previous;
+            if (appenderChanged)
+                next.getLogAppender().close();
+            throw e;
+        }
+        if (appenderChanged) {
+            currentAppenderSpec = appenderSpec.trim();
+            LogAppender replaced = previous.getLogAppender();
+            CompletableFuture.delayedExecutor(APPENDER_CLOSE_DELAY_SECONDS, TimeUnit.SECONDS)
+                    .execute(replaced::close);
+        }
+    }
+
+    private LoggerConfig parse(Properties properties, LoggerConfig previous, String appenderSpec) {
+        LogLevel level = previous.getLogLevel();
+        String levelValue = properties.getProperty(LEVEL_KEY);
+        if (levelValue != null) {
+            level = parseLevel(levelValue);
+        }
+
+        Map<String, LogLevel> loggerLevels = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(LOGGER_PREFIX)) {
+                loggerLevels.put(key.substring(LOGGER_PREFIX.length()), parseLevel(properties.getProperty(key)));
+            }
+        }
+
+        // Keep the existing appender unless its spec actually changed, so files stay open.
+        // Created last, once nothing else can fail and leave it open.
+        LogAppender appender = previous.getLogAppender();
+        if (appenderSpec != null && !appenderSpec.trim().equals(currentAppenderSpec)) {
+            appender = createAppender(appenderSpec.trim());
+        }
+        return new LoggerConfig(level, appender, loggerLevels);
+    }
+
+    private static LogLevel parseLevel(String value) {
+        return LogLevel.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static LogAppender createAppender(String spec) {
+        if (spec.equalsIgnoreCase("console"))
+            return new ConsoleAppender();
+        if (spec.startsWith("file:"))
+            return new FileAppender(spec.substring("file:".length()));
+        throw new IllegalArgumentException("Unknown appender " + spec);
+    }
+
+    public LoggerConfig getCurrentConfig() {
+        return currentConfig;
+    }
+
+    public synchronized void close() {
+        if (watcher == null)
+            return;
+        watcher.interrupt();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        watcher = null;
+    }
+}
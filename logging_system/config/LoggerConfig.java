@@ -2,29 +2,69 @@ package logging_system.config;
 
 import logging_system.enums.LogLevel;
 import logging_system.appender.LogAppender;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
-public class LoggerConfig {
-    private LogLevel logLevel;
-    private LogAppender logAppender;
+// Immutable snapshot of the logging configuration.
+// Changes produce a new snapshot via the with* methods, which is then published
+// to loggers as a whole, so a reader never sees a half-applied update.
+public final class LoggerConfig {
+    private final LogLevel logLevel;
+    private final LogAppender logAppender;
+    // Per-logger-name overrides, e.g. "com.shop.payments" -> DEBUG
+    private final Map<String, LogLevel> loggerLevels;
 
     public LoggerConfig(LogLevel logLevel, LogAppender logAppender) {
+        this(logLevel, logAppender, Collections.emptyMap());
+    }
+
+    public LoggerConfig(LogLevel logLevel, LogAppender logAppender, Map<String, LogLevel> loggerLevels) {
         this.logLevel = logLevel;
         this.logAppender = logAppender;
+        this.loggerLevels = Collections.unmodifiableMap(new HashMap<>(loggerLevels));
     }
 
     public LogLevel getLogLevel() {
         return logLevel;
     }
 
-    public void setLogLevel(LogLevel logLevel) {
-        this.logLevel = logLevel;
-    }
-
     public LogAppender getLogAppender() {
         return logAppender;
     }
 
-    public void setLogAppender(LogAppender logAppender) {
-        this.logAppender = logAppender;
+    public Map<String, LogLevel> getLoggerLevels() {
+        return loggerLevels;
+    }
+
+    // Resolves the level for a dotted logger name by walking up its ancestors:
+    // "com.shop.payments.card" -> "com.shop.payments" -> "com.shop" -> "com" -> root level
+    public LogLevel getLevel(String loggerName) {
+        if (loggerName == null || loggerLevels.isEmpty())
+            return logLevel;
+        String name = loggerName;
+        while (true) {
+            LogLevel level = loggerLevels.get(name);
+            if (level != null)
+                return level;
+            int lastDot = name.lastIndexOf('.');
+            if (lastDot < 0)
+                return logLevel;
+            name = name.substring(0, lastDot);
+        }
+    }
+
+    public LoggerConfig withLogLevel(LogLevel logLevel) {
+        return new LoggerConfig(logLevel, logAppender, loggerLevels);
+    }
+
+    public LoggerConfig withLogAppender(LogAppender logAppender) {
+        return new LoggerConfig(logLevel, logAppender, loggerLevels);
+    }
+
+    public LoggerConfig withLoggerLevel(String loggerName, LogLevel level) {
+        Map<String, LogLevel> levels = new HashMap<>(loggerLevels);
+        levels.put(loggerName, level);
+        return new LoggerConfig(logLevel, logAppender, levels);
     }
-}
\ No newline at end of file
+}
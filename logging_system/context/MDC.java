@@ -0,0 +1,118 @@
+package logging_system.context;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+// Mapped diagnostic context: per-thread key/values (requestId, tenant, ...) attached to every LogMessage.
+//
+// The map for a thread is immutable and replaced on every put/remove (copy-on-write).
+// Writes are rare and reads happen on every log call, so capturing the context for a
+// message is just a reference read, and the captured map can be handed to other
+// threads (async appenders, wrapped tasks) without copying.
+//
+// Context is not inherited by new threads. Pool workers, the common pool and appender
+// consumer threads are often started lazily from whichever thread happens to need them,
+// and would keep that thread's requestId forever. Tasks carry context only through wrap().
+public final class MDC {
+    private static final ThreadLocal<Map<String, String>> CONTEXT = new ThreadLocal<>();
+
+    private MDC() {
+    }
+
+    // Current thread's context; never null, never modified afterwards
+    public static Map<String, String> getContext() {
+        Map<String, String> context = CONTEXT.get();
+        return context == null ? Collections.emptyMap() : context;
+    }
+
+    public static String get(String key) {
+        return getContext().get(key);
+    }
+
+    public static void put(String key, String value) {
+        Map<String, String> next = new HashMap<>(getContext());
+        next.put(key, value);
+        CONTEXT.set(Collections.unmodifiableMap(next));
+    }
+
+    public static void remove(String key) {
+        Map<String, String> current = getContext();
+        if (!current.containsKey(key))
+            return;
+        Map<String, String> next = new HashMap<>(current);
+        next.remove(key);
+        CONTEXT.set(next.isEmpty() ? null : Collections.unmodifiableMap(next));
+    }
+
+    public static void clear() {
+        CONTEXT.remove();
+    }
+
+    // Replaces the whole context, e.g. with a map captured earlier by getContext()
+    public static void setContext(Map<String, String> context) {
+        if (context == null || context.isEmpty()) {
+            CONTEXT.remove();
+        } else {
+            CONTEXT.set(Collections.unmodifiableMap(new HashMap<>(context)));
+        }
+    }
+
+    // Puts a value for the duration of a try-with-resources block:
+    //   try (MDC.Scope scope = MDC.putScoped("requestId", id)) { ... }
+    public static Scope putScoped(String key, String value) {
+        Map<String, String> previous = CONTEXT.get();
+        put(key, value);
+        return new Scope(previous);
+    }
+
+    // Runs the task with the caller's current context, wherever it is executed
+    public static Runnable wrap(Runnable task) {
+        Map<String, String> captured = CONTEXT.get();
+        return () -> {
+            Map<String, String> previous = CONTEXT.get();
+            CONTEXT.set(captured);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Map<String, String> captured = CONTEXT.get();
+        return () -> {
+            Map<String, String> previous = CONTEXT.get();
+            CONTEXT.set(captured);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    // Removes rather than stores an empty context, so pooled threads don't keep an entry
+    private static void restore(Map<String, String> previous) {
+        if (previous == null)
+            CONTEXT.remove();
+        else
+            CONTEXT.set(previous);
+    }
+
+    // Restores the context that was active before putScoped
+    public static final class Scope implements AutoCloseable {
+        private final Map<String, String> previous;
+
+        private Scope(Map<String, String> previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            restore(previous);
+        }
+    }
+}
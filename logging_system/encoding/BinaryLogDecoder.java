@@ -0,0 +1,307 @@
+package logging_system.encoding;
+
+import logging_system.enums.LogLevel;
+import logging_system.message.LogMessage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads files written by BinaryLogEncoder back into LogMessages.
+// Also usable from the command line:
+//   java logging_system.encoding.BinaryLogDecoder <file> [--json]
+public class BinaryLogDecoder {
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final DataInputStream in;
+    private final List<String> templates = new ArrayList<>();
+    // In the unit of the session's version: milliseconds before 3, nanoseconds after
+    private long lastTimestamp;
+    private long lastSequence;
+    private byte version;
+    private boolean truncated;
+
+    public BinaryLogDecoder(InputStream in) {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+    }
+
+    // Returns the next message, or null at the end of the stream. A record cut short by
+    // the end of the stream (a crash mid-write) also ends it; see isTruncated().
+    public LogMessage next() throws IOException {
+        if (truncated)
+            return null;
+        try {
+            while (true) {
+                int tag = in.read();
+                switch (tag) {
+                    case -1:
+                        return null;
+                    case BinaryLogFormat.SESSION:
+                        readSession();
+                        break;
+                    case BinaryLogFormat.TEMPLATE:
+                        readTemplate();
+                        break;
+                    case BinaryLogFormat.EVENT:
+                        return readEvent();
+                    default:
+                        throw new IOException("Unknown record tag " + tag);
+                }
+            }
+        } catch (EOFException e) {
+            truncated = true;
+            return null;
+        }
+    }
+
+    // Whether the stream ended inside a record, which was then dropped
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    private void readSession() throws IOException {
+        if (in.readInt() != BinaryLogFormat.MAGIC)
+            throw new IOException("Not a binary log stream");
+        version = in.readByte();
+        if (version < BinaryLogFormat.MIN_VERSION || version > BinaryLogFormat.VERSION)
+            throw new IOException("Unsupported binary log version " + version);
+        // Each appender session starts with a fresh template table and timestamp base
+        templates.clear();
+        lastTimestamp = 0;
+        lastSequence = 0;
+    }
+
+    private void readTemplate() throws IOException {
+        int id = (int) readVarLong();
+        if (id != templates.size() + 1)
+            throw new IOException("Out of order template id " + id);
+        templates.add(readString());
+    }
+
+    private LogMessage readEvent() throws IOException {
+        LogLevel level = readLevel();
+        long timestamp = lastTimestamp + unZigZag(readVarLong());
+        lastTimestamp = timestamp;
+        long timestampNanos = timestamp * 1_000_000L;
+        int precisionDigits = 3;
+        long sequence = 0;
+        if (version >= 3) {
+            timestampNanos = timestamp;
+            precisionDigits = in.readUnsignedByte();
+            sequence = lastSequence + unZigZag(readVarLong());
+            lastSequence = sequence;
+        }
+        String pattern = readInterned();
+
+        int argCount = readCount(BinaryLogFormat.MAX_COUNT);
+        Object[] args = argCount == 0 ? NO_ARGS : new Object[argCount];
+        for (int i = 0; i < argCount; i++) {
+            args[i] = readValue();
+        }
+
+        int fieldCount = readCount(BinaryLogFormat.MAX_COUNT);
+        Map<String, Object> fields = Collections.emptyMap();
+        if (fieldCount > 0) {
+            fields = new LinkedHashMap<>();
+            for (int i = 0; i < fieldCount; i++) {
+                fields.put(readString(), readValue());
+            }
+        }
+
+        String threadName = null;
+        Map<String, String> context = Collections.emptyMap();
+        if (version >= 2) {
+            threadName = readInterned();
+            int contextCount = readCount(BinaryLogFormat.MAX_COUNT);
+            if (contextCount > 0) {
+                context = new LinkedHashMap<>();
+                for (int i = 0; i < contextCount; i++) {
+                    context.put(readInterned(), readString());
+                }
+            }
+        }
+        return new LogMessage(level, pattern, args, fields, context, threadName, timestampNanos, sequence,
+                precisionDigits);
+    }
+
+    private LogLevel readLevel() throws IOException {
+        int value = in.readUnsignedByte();
+        try {
+            return LogLevel.fromValue(value);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown log level " + value);
+        }
+    }
+
+    private String readInterned() throws IOException {
+        int id = (int) readVarLong();
+        if (id == BinaryLogFormat.INLINE_TEMPLATE)
+            return readString();
+        if (id < 0 || id > templates.size())
+            throw new IOException("Unknown template id " + id);
+        return templates.get(id - 1);
+    }
+
+    private Object readValue() throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case BinaryLogFormat.TYPE_NULL:
+                return null;
+            case BinaryLogFormat.TYPE_LONG:
+                return unZigZag(readVarLong());
+            case BinaryLogFormat.TYPE_DOUBLE:
+                return Double.longBitsToDouble(in.readLong());
+            case BinaryLogFormat.TYPE_BOOLEAN:
+                return in.readByte() != 0;
+            case BinaryLogFormat.TYPE_STRING:
+                return readString();
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+
+    private String readString() throws IOException {
+        byte[] bytes = new byte[readCount(BinaryLogFormat.MAX_STRING_BYTES)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // A varint length or element count, rejected above the format's limit before
+    // anything is allocated for it
+    private int readCount(int max) throws IOException {
+        long count = readVarLong();
+        if (count < 0 || count > max)
+            throw new IOException("Malformed count " + count + ", limit is " + max);
+        return (int) count;
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0)
+                throw new EOFException();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: BinaryLogDecoder <file> [--json]");
+            return;
+        }
+        boolean json = args.length > 1 && args[1].equals("--json");
+        PrintStream out = System.out;
+        try (InputStream file = Files.newInputStream(Paths.get(args[0]))) {
+            BinaryLogDecoder decoder = new BinaryLogDecoder(file);
+            LogMessage logMessage;
+            try {
+                while ((logMessage = decoder.next()) != null) {
+                    out.println(json ? toJson(logMessage) : logMessage.toString());
+                }
+            } catch (IOException e) {
+                // Everything before the bad record has been printed
+                System.err.println("Stopped at corrupt record: " + e.getMessage());
+                return;
+            }
+            if (decoder.isTruncated())
+                System.err.println("Ignored incomplete record at end of file");
+        }
+    }
+
+    // Context and fields are nested objects, so their keys can't collide with the
+    // top-level ones
+    private static String toJson(LogMessage logMessage) {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"timestamp\":").append(logMessage.getTimestamp());
+        json.append(",\"timestampNanos\":").append(logMessage.getTimestampNanos());
+        if (logMessage.getSequence() != 0)
+            json.append(",\"sequence\":").append(logMessage.getSequence());
+        json.append(",\"level\":\"").append(logMessage.getLevel()).append('"');
+        if (logMessage.getThreadName() != null) {
+            json.append(",\"thread\":");
+            appendJsonValue(json, logMessage.getThreadName());
+        }
+        json.append(",\"message\":");
+        appendJsonValue(json, logMessage.getMessage());
+        if (!logMessage.getContext().isEmpty()) {
+            json.append(",\"context\":");
+            appendJsonObject(json, logMessage.getContext());
+        }
+        if (!logMessage.getFields().isEmpty()) {
+            json.append(",\"fields\":");
+            appendJsonObject(json, logMessage.getFields());
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendJsonObject(StringBuilder json, Map<String, ?> entries) {
+        json.append('{');
+        boolean first = true;
+        for (Map.Entry<String, ?> entry : entries.entrySet()) {
+            if (!first)
+                json.append(',');
+            first = false;
+            appendJsonValue(json, entry.getKey());
+            json.append(':');
+            appendJsonValue(json, entry.getValue());
+        }
+        json.append('}');
+    }
+
+    private static void appendJsonValue(StringBuilder json, Object value) {
+        // JSON has no NaN or Infinity; those fall through and are written as strings
+        boolean nonFinite = (value instanceof Double && !Double.isFinite((Double) value))
+                || (value instanceof Float && !Float.isFinite((Float) value));
+        if (value == null || value instanceof Boolean || (value instanceof Number && !nonFinite)) {
+            json.append(value);
+            return;
+        }
+        json.append('"');
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
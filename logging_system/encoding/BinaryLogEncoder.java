@@ -0,0 +1,163 @@
+package logging_system.encoding;
+
+import logging_system.message.LogMessage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// Encodes LogMessages into the compact binary format described in BinaryLogFormat.
+// Patterns are interned into a template table so repeated messages only cost an id,
+// and arguments are written in their native type instead of being formatted to text.
+// Not thread-safe: callers serialize access (see BinaryFileAppender).
+public class BinaryLogEncoder {
+    // Bounds the table when callers log unique, already formatted strings
+    private static final int MAX_TEMPLATES = 4096;
+
+    private final OutputStream out;
+    private final Map<String, Integer> templates = new HashMap<>();
+    // Nanoseconds, like the timestamps written
+    private long lastTimestamp;
+    private long lastSequence;
+
+    public BinaryLogEncoder(OutputStream out) throws IOException {
+        this.out = out;
+        out.write(BinaryLogFormat.SESSION);
+        writeInt(BinaryLogFormat.MAGIC);
+        out.write(BinaryLogFormat.VERSION);
+    }
+
+    public void encode(LogMessage logMessage) throws IOException {
+        // Template records must precede the event that references them
+        int templateId = templateId(logMessage.getPattern());
+        int threadId = templateId(logMessage.getThreadName());
+        Map<String, String> context = logMessage.getContext();
+        int contextCount = Math.min(context.size(), BinaryLogFormat.MAX_COUNT);
+        int[] contextKeyIds = new int[contextCount];
+        int k = 0;
+        for (String key : context.keySet()) {
+            if (k == contextCount)
+                break;
+            contextKeyIds[k++] = templateId(key);
+        }
+
+        out.write(BinaryLogFormat.EVENT);
+        out.write(logMessage.getLevel().getValue());
+        writeVarLong(zigZag(logMessage.getTimestampNanos() - lastTimestamp));
+        lastTimestamp = logMessage.getTimestampNanos();
+        out.write(logMessage.getPrecisionDigits());
+        writeVarLong(zigZag(logMessage.getSequence() - lastSequence));
+        lastSequence = logMessage.getSequence();
+        writeInterned(templateId, logMessage.getPattern());
+
+        // Anything past the format's limits is dropped so the decoder can read the event
+        Object[] args = logMessage.getArgs();
+        int argCount = Math.min(args.length, BinaryLogFormat.MAX_COUNT);
+        writeVarLong(argCount);
+        for (int i = 0; i < argCount; i++) {
+            writeValue(args[i]);
+        }
+
+        Map<String, Object> fields = logMessage.getFields();
+        int fieldCount = Math.min(fields.size(), BinaryLogFormat.MAX_COUNT);
+        writeVarLong(fieldCount);
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            if (fieldCount-- == 0)
+                break;
+            writeString(field.getKey());
+            writeValue(field.getValue());
+        }
+
+        writeInterned(threadId, logMessage.getThreadName());
+        writeVarLong(contextCount);
+        k = 0;
+        for (Map.Entry<String, String> entry : context.entrySet()) {
+            if (k == contextCount)
+                break;
+            writeInterned(contextKeyIds[k++], entry.getKey());
+            writeString(entry.getValue() == null ? "" : entry.getValue());
+        }
+    }
+
+    private void writeInterned(int id, String value) throws IOException {
+        writeVarLong(id);
+        if (id == BinaryLogFormat.INLINE_TEMPLATE) {
+            writeString(value == null ? "" : value);
+        }
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // Returns the interned id, emitting a TEMPLATE record the first time a string is seen.
+    // Patterns, thread names and context keys share the table.
+    private int templateId(String pattern) throws IOException {
+        if (pattern == null)
+            return BinaryLogFormat.INLINE_TEMPLATE;
+        Integer id = templates.get(pattern);
+        if (id != null)
+            return id;
+        if (templates.size() >= MAX_TEMPLATES)
+            return BinaryLogFormat.INLINE_TEMPLATE;
+        int newId = templates.size() + 1;
+        templates.put(pattern, newId);
+        out.write(BinaryLogFormat.TEMPLATE);
+        writeVarLong(newId);
+        writeString(pattern);
+        return newId;
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            out.write(BinaryLogFormat.TYPE_NULL);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte) {
+            out.write(BinaryLogFormat.TYPE_LONG);
+            writeVarLong(zigZag(((Number) value).longValue()));
+        } else if (value instanceof Double || value instanceof Float) {
+            out.write(BinaryLogFormat.TYPE_DOUBLE);
+            writeLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof Boolean) {
+            out.write(BinaryLogFormat.TYPE_BOOLEAN);
+            out.write((Boolean) value ? 1 : 0);
+        } else {
+            out.write(BinaryLogFormat.TYPE_STRING);
+            writeString(value.toString());
+        }
+    }
+
+    // Longer strings are cut to MAX_STRING_BYTES; a character split at the cut decodes
+    // as a replacement character
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, BinaryLogFormat.MAX_STRING_BYTES);
+        writeVarLong(length);
+        out.write(bytes, 0, length);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private void writeLong(long value) throws IOException {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
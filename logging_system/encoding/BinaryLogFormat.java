@@ -0,0 +1,43 @@
+package logging_system.encoding;
+
+// Constants shared by BinaryLogEncoder and BinaryLogDecoder.
+//
+// A stream is a sequence of tagged records:
+//   SESSION   magic(int) version(byte)            resets templates and timestamp base
+//   TEMPLATE  id(varint) text(string)             registers a message template
+//   EVENT     level(byte) timestampDelta(zigzag varint)
+//             [precisionDigits(byte) sequenceDelta(zigzag varint)   version 3+]
+//             templateId(varint)
+//             [text(string) when templateId == 0]
+//             argCount(varint) value* fieldCount(varint) (key(string) value)*
+//             threadName(interned) contextCount(varint) (key(interned) value(string))*   [version 2+]
+// Timestamp deltas are in milliseconds up to version 2 and in nanoseconds from version 3.
+// An interned string is a template id, followed by the text when the id is 0.
+// Strings are a varint byte length followed by UTF-8 bytes; values start with a type tag.
+final class BinaryLogFormat {
+    static final int MAGIC = 0x424C4F47; // "BLOG"
+    static final byte VERSION = 3;
+    static final byte MIN_VERSION = 1;
+
+    static final byte SESSION = 1;
+    static final byte TEMPLATE = 2;
+    static final byte EVENT = 3;
+
+    // Template id 0 means the text follows inline instead of being interned
+    static final int INLINE_TEMPLATE = 0;
+
+    // Largest string length and element count (args, fields, context entries) a reader
+    // accepts, so a corrupt length fails with an IOException instead of allocating up to
+    // 2 GB. The encoder truncates to the same limits.
+    static final int MAX_STRING_BYTES = 16 * 1024 * 1024;
+    static final int MAX_COUNT = 64 * 1024;
+
+    static final byte TYPE_NULL = 0;
+    static final byte TYPE_LONG = 1;
+    static final byte TYPE_DOUBLE = 2;
+    static final byte TYPE_BOOLEAN = 3;
+    static final byte TYPE_STRING = 4;
+
+    private BinaryLogFormat() {
+    }
+}
@@ -14,6 +14,14 @@ public enum LogLevel {
         return value;
     }
 
+    public static LogLevel fromValue(int value) {
+        for (LogLevel level : values()) {
+            if (level.value == value)
+                return level;
+        }
+        throw new IllegalArgumentException("Unknown log level value: " + value);
+    }
+
     public boolean isGreaterOrEqual(LogLevel other) {
         return this.value >= other.value;
     }
@@ -0,0 +1,11 @@
+package logging_system.enums;
+
+public enum OverflowPolicy {
+    // Caller waits until the consumer frees a slot
+    BLOCK,
+    // Oldest queued message is discarded to make room for the new one
+    DROP_OLDEST,
+    // Incoming DEBUG messages are discarded; higher levels replace a queued DEBUG
+    // message, or evict the oldest entry when none is queued
+    DROP_DEBUG_FIRST
+}
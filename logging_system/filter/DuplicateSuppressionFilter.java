@@ -0,0 +1,170 @@
+package logging_system.filter;
+
+import logging_system.appender.LogAppender;
+import logging_system.enums.LogLevel;
+import logging_system.message.LogMessage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Collapses bursts of identical messages into the first occurrence plus a single
+// "repeated N times" line. Messages are compared by level, pattern and arguments,
+// so duplicates are detected without formatting them.
+//
+// Each distinct message gets its own window, so interleaved bursts (A, B, A, B) are
+// suppressed too. A window's summary is written when it closes, either on the next
+// message or by a background sweep, not only when a different message comes along.
+// At most maxTracked windows are open; the oldest is closed early to make room.
+public class DuplicateSuppressionFilter implements LogFilter {
+    private static final String SUMMARY_PATTERN = "Message repeated {} times: {}";
+    private static final int DEFAULT_MAX_TRACKED = 1024;
+
+    private final long windowMillis;
+    private final int maxTracked;
+    // Insertion order is the order windows opened, so the expired ones are at the head
+    private final LinkedHashMap<Key, Window> windows = new LinkedHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    // Where the sweep writes summaries; the appender the filter was last used with
+    private volatile LogAppender next;
+
+    private static final class Key {
+        private final LogLevel level;
+        private final String pattern;
+        private final Object[] args;
+        private final int hash;
+
+        Key(LogMessage logMessage) {
+            this.level = logMessage.getLevel();
+            this.pattern = logMessage.getPattern();
+            this.args = logMessage.getArgs().clone();
+            this.hash = Objects.hash(level, pattern) * 31 + Arrays.hashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key other = (Key) o;
+            return level == other.level && Objects.equals(pattern, other.pattern)
+                    && Arrays.equals(args, other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Window {
+        private final LogMessage first;
+        private final long start;
+        private int repeats;
+
+        Window(LogMessage first) {
+            this.first = first;
+            this.start = first.getTimestamp();
+        }
+    }
+
+    public DuplicateSuppressionFilter(long windowMillis) {
+        this(windowMillis, DEFAULT_MAX_TRACKED);
+    }
+
+    public DuplicateSuppressionFilter(long windowMillis, int maxTracked) {
+        if (windowMillis <= 0)
+            throw new IllegalArgumentException("windowMillis must be positive: " + windowMillis);
+        if (maxTracked < 1)
+            throw new IllegalArgumentException("maxTracked must be at least 1: " + maxTracked);
+        this.windowMillis = windowMillis;
+        this.maxTracked = maxTracked;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "duplicate-suppression");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Closes windows during quiet periods so their summaries aren't held back
+        scheduler.scheduleAtFixedRate(this::sweep, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean accept(LogMessage logMessage, LogAppender next) {
+        this.next = next;
+        List<LogMessage> summaries = new ArrayList<>();
+        boolean accepted;
+        synchronized (this) {
+            closeExpired(logMessage.getTimestamp(), summaries);
+            Key key = new Key(logMessage);
+            Window window = windows.get(key);
+            if (window != null) {
+                window.repeats++;
+                accepted = false;
+            } else {
+                windows.put(key, new Window(logMessage));
+                if (windows.size() > maxTracked) {
+                    Iterator<Window> oldest = windows.values().iterator();
+                    addSummary(oldest.next(), summaries);
+                    oldest.remove();
+                }
+                accepted = true;
+            }
+        }
+        appendAll(summaries, next);
+        return accepted;
+    }
+
+    @Override
+    public void close(LogAppender next) {
+        scheduler.shutdownNow();
+        List<LogMessage> summaries = new ArrayList<>();
+        synchronized (this) {
+            for (Window window : windows.values()) {
+                addSummary(window, summaries);
+            }
+            windows.clear();
+        }
+        appendAll(summaries, next);
+    }
+
+    private void sweep() {
+        LogAppender target = next;
+        if (target == null)
+            return;
+        List<LogMessage> summaries = new ArrayList<>();
+        synchronized (this) {
+            closeExpired(System.currentTimeMillis(), summaries);
+        }
+        appendAll(summaries, target);
+    }
+
+    // Removes windows that started windowMillis or more before now, oldest first
+    private void closeExpired(long now, List<LogMessage> summaries) {
+        Iterator<Map.Entry<Key, Window>> it = windows.entrySet().iterator();
+        while (it.hasNext()) {
+            Window window = it.next().getValue();
+            if (now - window.start < windowMillis)
+                break;
+            addSummary(window, summaries);
+            it.remove();
+        }
+    }
+
+    private static void addSummary(Window window, List<LogMessage> summaries) {
+        if (window.repeats == 0)
+            return;
+        summaries.add(new LogMessage(window.first.getLevel(), SUMMARY_PATTERN,
+                new Object[] { window.repeats, window.first.getMessage() }));
+    }
+
+    private static void appendAll(List<LogMessage> summaries, LogAppender next) {
+        for (LogMessage summary : summaries) {
+            next.append(summary);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package logging_system.filter;
+
+import logging_system.appender.LogAppender;
+import logging_system.message.LogMessage;
+
+// Runs messages through the filters in order and appends the survivors
+public class FilteringAppender implements LogAppender {
+    private final LogAppender delegate;
+    private final LogFilter[] filters;
+
+    public FilteringAppender(LogAppender delegate, LogFilter... filters) {
+        this.delegate = delegate;
+        this.filters = filters;
+    }
+
+    @Override
+    public void append(LogMessage logMessage) {
+        for (LogFilter filter : filters) {
+            if (!filter.accept(logMessage, delegate))
+                return;
+        }
+        delegate.append(logMessage);
+    }
+
+    @Override
+    public void close() {
+        for (LogFilter filter : filters) {
+            filter.close(delegate);
+        }
+        delegate.close();
+    }
+}
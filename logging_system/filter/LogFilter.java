@@ -0,0 +1,17 @@
+package logging_system.filter;
+
+import logging_system.appender.LogAppender;
+import logging_system.message.LogMessage;
+
+// A stage in front of an appender that decides whether a message is written.
+// Filters look at level, pattern and arguments only, never the formatted text,
+// so rejected messages are never formatted.
+public interface LogFilter {
+    // Returns false to drop the message. Filters that summarize what they dropped
+    // may write their own messages to next.
+    boolean accept(LogMessage logMessage, LogAppender next);
+
+    // Called on shutdown so filters can write any pending summary
+    default void close(LogAppender next) {
+    }
+}
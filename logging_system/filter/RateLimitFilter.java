@@ -0,0 +1,76 @@
+package logging_system.filter;
+
+import logging_system.appender.LogAppender;
+import logging_system.enums.LogLevel;
+import logging_system.message.LogMessage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Token-bucket rate limit per level. Levels without a limit pass through.
+//
+// Each bucket is kept as a single "theoretical arrival time" updated with CAS
+// (the GCRA form of a token bucket), so there are no locks and no refill thread.
+public class RateLimitFilter implements LogFilter {
+    private final Bucket[] buckets = new Bucket[LogLevel.values().length];
+
+    private static class Bucket {
+        private final long intervalNanos;
+        private final long burstNanos;
+        // Times are nanoseconds since the bucket was created, so they never wrap
+        private final long origin = System.nanoTime();
+        private final AtomicLong theoreticalArrival = new AtomicLong();
+        private final LongAdder rejected = new LongAdder();
+
+        Bucket(double permitsPerSecond, int burst) {
+            if (!(permitsPerSecond > 0))
+                throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+            if (burst < 1)
+                throw new IllegalArgumentException("burst must be at least 1: " + burst);
+            // The cast saturates for tiny rates; very high rates still advance by 1ns
+            this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+            this.burstNanos = saturatedMultiply(intervalNanos, burst - 1);
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                long now = System.nanoTime() - origin;
+                long arrival = theoreticalArrival.get();
+                long start = Math.max(arrival, now);
+                if (start - now > burstNanos) {
+                    rejected.increment();
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(arrival, saturatedAdd(start, intervalNanos)))
+                    return true;
+            }
+        }
+
+        // Both helpers take non-negative operands and stop at Long.MAX_VALUE
+        private static long saturatedAdd(long a, long b) {
+            long sum = a + b;
+            return sum < 0 ? Long.MAX_VALUE : sum;
+        }
+
+        private static long saturatedMultiply(long a, long b) {
+            return b != 0 && a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+        }
+    }
+
+    // Allows permitsPerSecond on average with bursts of up to burst messages.
+    // Throws IllegalArgumentException unless permitsPerSecond > 0 and burst >= 1.
+    public RateLimitFilter limit(LogLevel level, double permitsPerSecond, int burst) {
+        buckets[level.ordinal()] = new Bucket(permitsPerSecond, burst);
+        return this;
+    }
+
+    @Override
+    public boolean accept(LogMessage logMessage, LogAppender next) {
+        Bucket bucket = buckets[logMessage.getLevel().ordinal()];
+        return bucket == null || bucket.tryAcquire();
+    }
+
+    public long getRejectedCount(LogLevel level) {
+        Bucket bucket = buckets[level.ordinal()];
+        return bucket == null ? 0 : bucket.rejected.sum();
+    }
+}
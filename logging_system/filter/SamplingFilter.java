@@ -0,0 +1,28 @@
+package logging_system.filter;
+
+import logging_system.appender.LogAppender;
+import logging_system.enums.LogLevel;
+import logging_system.message.LogMessage;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Keeps a random fraction of the messages for each configured level,
+// e.g. 1% of DEBUG and 10% of INFO. Unconfigured levels are always kept.
+public class SamplingFilter implements LogFilter {
+    private final double[] rates = new double[LogLevel.values().length];
+
+    public SamplingFilter() {
+        Arrays.fill(rates, 1.0);
+    }
+
+    public SamplingFilter sample(LogLevel level, double rate) {
+        rates[level.ordinal()] = Math.max(0.0, Math.min(1.0, rate));
+        return this;
+    }
+
+    @Override
+    public boolean accept(LogMessage logMessage, LogAppender next) {
+        double rate = rates[logMessage.getLevel().ordinal()];
+        return rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
@@ -0,0 +1,38 @@
+package logging_system.handler;
+
+// Flattens a LogHandler chain into an array indexed by level, so the handler
+// for a message is found with one lookup instead of a walk down the chain.
+// The table is a snapshot: build a new dispatcher after changing the chain.
+public class LogDispatcher {
+    private final LogHandler chain;
+    private final LogHandler[] handlersByLevel;
+
+    public LogDispatcher(LogHandler chain) {
+        this.chain = chain;
+        int maxLevel = 0;
+        for (LogHandler handler = chain; handler != null; handler = handler.getNextLogger()) {
+            maxLevel = Math.max(maxLevel, handler.getLevel());
+        }
+        // Resolve each level exactly as LogHandler.logMessage would
+        this.handlersByLevel = new LogHandler[maxLevel + 1];
+        for (int level = 0; level <= maxLevel; level++) {
+            LogHandler handler = chain;
+            while (handler != null && handler.getLevel() < level) {
+                handler = handler.getNextLogger();
+            }
+            handlersByLevel[level] = handler;
+        }
+    }
+
+    public void logMessage(int level, String message) {
+        if (level >= 0 && level < handlersByLevel.length) {
+            LogHandler handler = handlersByLevel[level];
+            if (handler != null)
+                handler.handle(level, message);
+        } else if (level < 0 && chain != null) {
+            // Levels outside the table are rare, fall back to the chain walk
+            chain.logMessage(level, message);
+        }
+        // Levels above every handler's level are not handled, same as the chain
+    }
+}
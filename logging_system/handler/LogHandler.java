@@ -9,6 +9,9 @@ public abstract class LogHandler {
     public static final int DEBUG = 2;
     public static final int ERROR = 3;
 
+    // Handler level constant -> LogLevel, indexed instead of switched on per message
+    private static final LogLevel[] LEVELS = { null, LogLevel.INFO, LogLevel.DEBUG, LogLevel.ERROR };
+
     protected int level;
     protected LogHandler nextLogger;
     protected LogAppender appender;
@@ -22,29 +25,37 @@ public abstract class LogHandler {
         this.nextLogger = nextLogger;
     }
 
+    // Walks the chain until a handler accepts the level
     public void logMessage(int level, String message) {
-        if (this.level >= level) {
-            LogLevel logLevel = intToLogLevel(level);
-            LogMessage logMsg = new LogMessage(logLevel, message);
-            // Use the appender to log
-            if (appender != null)
-                appender.append(logMsg);
-            write(message);
-        } else if (nextLogger != null)
-            nextLogger.logMessage(level, message);
+        LogHandler handler = this;
+        while (handler != null && handler.level < level) {
+            handler = handler.nextLogger;
+        }
+        if (handler != null)
+            handler.handle(level, message);
     }
 
-    private LogLevel intToLogLevel(int level) {
-        switch (level) {
-            case INFO:
-                return LogLevel.INFO;
-            case DEBUG:
-                return LogLevel.DEBUG;
-            case ERROR:
-                return LogLevel.ERROR;
-            default:
-                return LogLevel.INFO;
-        }
+    // Processes the message in this handler without consulting the rest of the chain
+    protected void handle(int level, String message) {
+        LogMessage logMsg = new LogMessage(intToLogLevel(level), message);
+        // Use the appender to log
+        if (appender != null)
+            appender.append(logMsg);
+        write(message);
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public LogHandler getNextLogger() {
+        return nextLogger;
+    }
+
+    private static LogLevel intToLogLevel(int level) {
+        if (level >= 0 && level < LEVELS.length && LEVELS[level] != null)
+            return LEVELS[level];
+        return LogLevel.INFO;
     }
 
     abstract protected void write(String message);
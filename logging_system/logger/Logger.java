@@ -4,48 +4,185 @@ import logging_system.enums.LogLevel;
 import logging_system.appender.LogAppender;
 import logging_system.config.LoggerConfig;
 import logging_system.message.LogMessage;
+import logging_system.metrics.Counter;
+import logging_system.metrics.MetricsRegistry;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class Logger {
-    private static final ConcurrentHashMap<String, Logger> instances = new ConcurrentHashMap<>();
-    private LoggerConfig config;
+    private static final Map<LogLevel, ConcurrentHashMap<LogAppender, Logger>> instances = new EnumMap<>(LogLevel.class);
+
+    // Messages that passed the level check, indexed by LogLevel ordinal
+    private static final Counter[] messageCounters = new Counter[LogLevel.values().length];
+
+    static {
+        for (LogLevel level : LogLevel.values()) {
+            instances.put(level, new ConcurrentHashMap<>());
+            messageCounters[level.ordinal()] = MetricsRegistry.getDefault().counter("logger.messages." + level);
+        }
+    }
+
+    // Dotted name such as "com.shop.payments", null for loggers created through getInstance
+    private final String name;
+    // Replaced wholesale so log() never needs a lock, and read once per call so the level
+    // check and the append always use the same config
+    private volatile State state;
+
+    private static final class State {
+        final LoggerConfig config;
+        // Effective level for this logger's name, precomputed so the check is one int compare
+        final int threshold;
+
+        State(LoggerConfig config, int threshold) {
+            this.config = config;
+            this.threshold = threshold;
+        }
+
+        boolean isEnabled(LogLevel level) {
+            return level.getValue() >= threshold;
+        }
+    }
 
     // Private constructor to enforce singleton pattern
     private Logger(LogLevel logLevel, LogAppender logAppender) {
-        config = new LoggerConfig(logLevel, logAppender);
+        this(null, new LoggerConfig(logLevel, logAppender));
+    }
+
+    // Named loggers are created through LoggerRepository
+    Logger(String name, LoggerConfig config) {
+        this.name = name;
+        setConfig(config);
     }
 
-    // Get instance based on LogLevel and LogAppender
+    // Get instance based on LogLevel and LogAppender instance
     public static Logger getInstance(LogLevel logLevel, LogAppender logAppender) {
-        String key = logLevel.name() + "_" + logAppender.getClass().getName();
+        ConcurrentHashMap<LogAppender, Logger> byAppender = instances.get(logLevel);
+        Logger logger = byAppender.get(logAppender);
+        if (logger != null)
+            return logger;
         // Compute instance if absent (thread-safe lazy initialization)
-        return instances.computeIfAbsent(key, k -> new Logger(logLevel, logAppender));
+        return byAppender.computeIfAbsent(logAppender, appender -> new Logger(logLevel, appender));
     }
 
-    // Updates the logger configuration
+    // Publishes a new configuration snapshot; in-flight calls finish on the old one
     public void setConfig(LoggerConfig config) {
-        synchronized (Logger.class) { // Ensure thread safety while updating config
-            this.config = config;
-        }
+        this.state = new State(config, config.getLevel(name).getValue());
+    }
+
+    public LoggerConfig getConfig() {
+        return state.config;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LogLevel getEffectiveLevel() {
+        return LogLevel.fromValue(state.threshold);
     }
 
     // Logs a message if the level meets the configured threshold
     public void log(LogLevel level, String message) {
-        if (level.getValue() >= config.getLogLevel().getValue()) {
-            LogMessage logMessage = new LogMessage(level, message);
-            config.getLogAppender().append(logMessage);
-        }
+        State current = state;
+        if (current.isEnabled(level))
+            append(current, new LogMessage(level, message));
+    }
+
+    // Formatting of "{}" placeholders is deferred until an appender renders the message,
+    // so a call filtered out by level only costs the level check
+    public void log(LogLevel level, String pattern, Object... args) {
+        State current = state;
+        if (current.isEnabled(level))
+            append(current, new LogMessage(level, pattern, args));
+    }
+
+    // Attaches typed key/value fields that structured appenders keep apart from the text
+    public void log(LogLevel level, Map<String, Object> fields, String pattern, Object... args) {
+        State current = state;
+        if (current.isEnabled(level))
+            append(current, new LogMessage(level, pattern, args, fields));
+    }
+
+    private static void append(State current, LogMessage logMessage) {
+        messageCounters[logMessage.getLevel().ordinal()].increment();
+        current.config.getLogAppender().append(logMessage);
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return state.isEnabled(level);
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
+    }
+
+    public boolean isInfoEnabled() {
+        return isEnabled(LogLevel.INFO);
+    }
+
+    public boolean isErrorEnabled() {
+        return isEnabled(LogLevel.ERROR);
     }
 
     public void debug(String message) {
         log(LogLevel.DEBUG, message);
     }
 
+    // Fixed-arity overloads avoid allocating a varargs array when the level is disabled
+    public void debug(String pattern, Object arg) {
+        State current = state;
+        if (current.isEnabled(LogLevel.DEBUG))
+            append(current, new LogMessage(LogLevel.DEBUG, pattern, new Object[] { arg }));
+    }
+
+    public void debug(String pattern, Object arg1, Object arg2) {
+        State current = state;
+        if (current.isEnabled(LogLevel.DEBUG))
+            append(current, new LogMessage(LogLevel.DEBUG, pattern, new Object[] { arg1, arg2 }));
+    }
+
+    public void debug(String pattern, Object... args) {
+        log(LogLevel.DEBUG, pattern, args);
+    }
+
     public void info(String message) {
         log(LogLevel.INFO, message);
     }
 
+    public void info(String pattern, Object arg) {
+        State current = state;
+        if (current.isEnabled(LogLevel.INFO))
+            append(current, new LogMessage(LogLevel.INFO, pattern, new Object[] { arg }));
+    }
+
+    public void info(String pattern, Object arg1, Object arg2) {
+        State current = state;
+        if (current.isEnabled(LogLevel.INFO))
+            append(current, new LogMessage(LogLevel.INFO, pattern, new Object[] { arg1, arg2 }));
+    }
+
+    public void info(String pattern, Object... args) {
+        log(LogLevel.INFO, pattern, args);
+    }
+
     public void error(String message) {
         log(LogLevel.ERROR, message);
     }
-}
\ No newline at end of file
+
+    public void error(String pattern, Object arg) {
+        State current = state;
+        if (current.isEnabled(LogLevel.ERROR))
+            append(current, new LogMessage(LogLevel.ERROR, pattern, new Object[] { arg }));
+    }
+
+    public void error(String pattern, Object arg1, Object arg2) {
+        State current = state;
+        if (current.isEnabled(LogLevel.ERROR))
+            append(current, new LogMessage(LogLevel.ERROR, pattern, new Object[] { arg1, arg2 }));
+    }
+
+    public void error(String pattern, Object... args) {
+        log(LogLevel.ERROR, pattern, args);
+    }
+}
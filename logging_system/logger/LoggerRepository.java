@@ -0,0 +1,74 @@
+package logging_system.logger;
+
+import logging_system.appender.ConsoleAppender;
+import logging_system.config.LoggerConfig;
+import logging_system.enums.LogLevel;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Caches loggers by dotted name ("com.shop.payments").
+// Each logger's effective level is resolved from the closest configured ancestor
+// once, when the config is published, instead of on every log call.
+public class LoggerRepository {
+    private static volatile LoggerRepository defaultRepository;
+
+    private final ConcurrentHashMap<String, Logger> loggers = new ConcurrentHashMap<>();
+    private volatile LoggerConfig config;
+
+    public LoggerRepository(LoggerConfig config) {
+        this.config = config;
+    }
+
+    // Process-wide repository logging INFO and above to the console until reconfigured
+    public static LoggerRepository getDefault() {
+        LoggerRepository repository = defaultRepository;
+        if (repository == null) {
+            synchronized (LoggerRepository.class) {
+                repository = defaultRepository;
+                if (repository == null) {
+                    repository = new LoggerRepository(new LoggerConfig(LogLevel.INFO, new ConsoleAppender()));
+                    defaultRepository = repository;
+                }
+            }
+        }
+        return repository;
+    }
+
+    // Lookups of existing loggers are a plain map read and do not allocate
+    public Logger getLogger(String name) {
+        Logger logger = loggers.get(name);
+        if (logger != null)
+            return logger;
+        return createLogger(name);
+    }
+
+    public Logger getLogger(Class<?> type) {
+        return getLogger(type.getName());
+    }
+
+    // Creation is serialized with setConfig so a new logger can't miss a config update
+    private synchronized Logger createLogger(String name) {
+        Logger logger = loggers.get(name);
+        if (logger == null) {
+            logger = new Logger(name, config);
+            loggers.put(name, logger);
+        }
+        return logger;
+    }
+
+    // Recomputes every logger's effective level from the new snapshot.
+    // Usable directly as a ConfigReloader listener: new ConfigReloader(file, config, repository::setConfig)
+    public synchronized void setConfig(LoggerConfig config) {
+        this.config = config;
+        for (Logger logger : loggers.values()) {
+            logger.setConfig(config);
+        }
+    }
+
+    public LoggerConfig getConfig() {
+        return config;
+    }
+
+    public int size() {
+        return loggers.size();
+    }
+}
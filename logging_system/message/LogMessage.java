@@ -1,16 +1,91 @@
 package logging_system.message;
 
+import logging_system.clock.Clocks;
+import logging_system.clock.LogClock;
+import logging_system.clock.TimestampFormatter;
+import logging_system.context.MDC;
 import logging_system.enums.LogLevel;
+import java.util.Collections;
+import java.util.Map;
 
 public class LogMessage {
+    private static final Object[] NO_ARGS = new Object[0];
+
     private final LogLevel level;
-    private final String message;
-    private final long timestamp;
+    private final String pattern;
+    // Replaced by a snapshot in freeze()
+    private Object[] args;
+    private final Map<String, Object> fields;
+    // Captured from MDC at log time; immutable, so it is shared rather than copied
+    private final Map<String, String> context;
+    private final String threadName;
+    // Nanoseconds since the epoch; precision depends on the configured LogClock
+    private final long timestampNanos;
+    // Global log order, breaks ties between messages with the same timestamp
+    private final long sequence;
+    // Fraction digits of the clock that stamped the message, for rendering
+    private final int precisionDigits;
+    // Formatted lazily, so messages that are never rendered never pay for it
+    private String message;
+    private boolean frozen;
 
     public LogMessage(LogLevel level, String message) {
+        this(level, message, NO_ARGS);
+    }
+
+    public LogMessage(LogLevel level, String pattern, Object[] args) {
+        this(level, pattern, args, Collections.emptyMap());
+    }
+
+    // Fields are typed key/value pairs kept apart from the text, e.g. orderId=42
+    public LogMessage(LogLevel level, String pattern, Object[] args, Map<String, Object> fields) {
+        this.level = level;
+        this.pattern = pattern;
+        this.args = args;
+        this.fields = fields;
+        this.context = MDC.getContext();
+        this.threadName = Thread.currentThread().getName();
+        LogClock clock = Clocks.get();
+        this.timestampNanos = clock.epochNanos();
+        this.precisionDigits = clock.precisionDigits();
+        this.sequence = Clocks.nextSequence();
+        if (args.length == 0)
+            this.message = pattern;
+    }
+
+    // Used when rebuilding a message that was already persisted; timestamp in milliseconds
+    public LogMessage(LogLevel level, String message, long timestamp) {
+        this(level, message, NO_ARGS, Collections.emptyMap(), timestamp);
+    }
+
+    // Rebuilds a message persisted with its full timestamp and sequence
+    public LogMessage(LogLevel level, String message, long timestampNanos, long sequence, int precisionDigits) {
+        this(level, message, NO_ARGS, Collections.emptyMap(), Collections.emptyMap(), null,
+                timestampNanos, sequence, precisionDigits);
+    }
+
+    public LogMessage(LogLevel level, String pattern, Object[] args, Map<String, Object> fields, long timestamp) {
+        this(level, pattern, args, fields, Collections.emptyMap(), null, timestamp);
+    }
+
+    public LogMessage(LogLevel level, String pattern, Object[] args, Map<String, Object> fields,
+            Map<String, String> context, String threadName, long timestamp) {
+        this(level, pattern, args, fields, context, threadName, timestamp * 1_000_000L, 0, 3);
+    }
+
+    public LogMessage(LogLevel level, String pattern, Object[] args, Map<String, Object> fields,
+            Map<String, String> context, String threadName, long timestampNanos, long sequence, int precisionDigits) {
         this.level = level;
-        this.message = message;
-        this.timestamp = System.currentTimeMillis();
+        this.pattern = pattern;
+        this.args = args;
+        this.fields = fields;
+        this.context = context;
+        this.threadName = threadName;
+        this.timestampNanos = timestampNanos;
+        this.sequence = sequence;
+        this.precisionDigits = precisionDigits;
+        if (args.length == 0)
+            this.message = pattern;
     }
 
     public LogLevel getLevel() {
@@ -18,15 +93,96 @@ public class LogMessage {
     }
 
     public String getMessage() {
-        return message;
+        String formatted = message;
+        if (formatted == null) {
+            // Racing threads compute the same immutable string, so no locking is needed
+            formatted = MessageFormatter.format(pattern, args);
+            message = formatted;
+        }
+        return formatted;
+    }
+
+    // Formats the message now and replaces mutable arguments with their text, so the
+    // message can be handed to another thread. The caller may change its objects once
+    // log() returns, and the other thread would read them unsynchronized and render
+    // their later state. Called by the caller's thread before the handoff; repeat calls
+    // do nothing.
+    public void freeze() {
+        if (frozen)
+            return;
+        getMessage();
+        Object[] snapshot = null;
+        for (int i = 0; i < args.length; i++) {
+            if (!isImmutable(args[i])) {
+                // Copy rather than write into the caller's array
+                if (snapshot == null)
+                    snapshot = args.clone();
+                snapshot[i] = String.valueOf(args[i]);
+            }
+        }
+        if (snapshot != null)
+            args = snapshot;
+        frozen = true;
     }
 
+    // Types the binary encoder writes natively, plus enums; everything else may change
+    private static boolean isImmutable(Object arg) {
+        return arg == null || arg instanceof String || arg instanceof Long || arg instanceof Integer
+                || arg instanceof Short || arg instanceof Byte || arg instanceof Double || arg instanceof Float
+                || arg instanceof Boolean || arg instanceof Character || arg instanceof Enum;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public Object[] getArgs() {
+        return args;
+    }
+
+    public Map<String, Object> getFields() {
+        return fields;
+    }
+
+    public Map<String, String> getContext() {
+        return context;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    // Milliseconds since the epoch
     public long getTimestamp() {
-        return timestamp;
+        return Math.floorDiv(timestampNanos, 1_000_000L);
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    // 0 for messages rebuilt from formats that don't keep it
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getPrecisionDigits() {
+        return precisionDigits;
     }
 
     @Override
     public String toString() {
-        return "[" + level + "] " + timestamp + " - " + message;
+        String text = getMessage();
+        StringBuilder builder = new StringBuilder(48 + (text == null ? 4 : text.length()));
+        builder.append('[').append(level).append("] ");
+        TimestampFormatter.append(builder, timestampNanos, precisionDigits);
+        if (sequence != 0)
+            builder.append(" #").append(sequence);
+        if (!context.isEmpty())
+            builder.append(' ').append(context);
+        builder.append(" - ").append(text);
+        if (!fields.isEmpty())
+            builder.append(' ').append(fields);
+        return builder.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package logging_system.message;
+
+// Replaces "{}" placeholders in a pattern with the given arguments.
+// Formatting reuses a per-thread StringBuilder so the only allocation is the result.
+public final class MessageFormatter {
+    private static final String PLACEHOLDER = "{}";
+    private static final int MAX_REUSED_CAPACITY = 4096;
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private MessageFormatter() {
+    }
+
+    public static String format(String pattern, Object[] args) {
+        if (pattern == null || args == null || args.length == 0)
+            return pattern;
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        int from = 0;
+        int argIndex = 0;
+        while (argIndex < args.length) {
+            int placeholder = pattern.indexOf(PLACEHOLDER, from);
+            if (placeholder < 0)
+                break;
+            builder.append(pattern, from, placeholder).append(args[argIndex++]);
+            from = placeholder + PLACEHOLDER.length();
+        }
+        builder.append(pattern, from, pattern.length());
+        String result = builder.toString();
+        // Don't let one huge message pin a large buffer to the thread forever
+        if (builder.capacity() > MAX_REUSED_CAPACITY) {
+            BUILDER.remove();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,25 @@
+package logging_system.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Monotonic count, cheap to increment from many threads
+public class Counter implements Metric {
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    @Override
+    public void dump(String name, StringBuilder out) {
+        out.append(name).append(' ').append(get()).append('\n');
+    }
+}
@@ -0,0 +1,21 @@
+package logging_system.metrics;
+
+import java.util.function.LongSupplier;
+
+// Value read on demand from its owner, e.g. a queue size
+public class Gauge implements Metric {
+    private final LongSupplier supplier;
+
+    public Gauge(LongSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    public long get() {
+        return supplier.getAsLong();
+    }
+
+    @Override
+    public void dump(String name, StringBuilder out) {
+        out.append(name).append(' ').append(get()).append('\n');
+    }
+}
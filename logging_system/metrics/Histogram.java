@@ -0,0 +1,68 @@
+package logging_system.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histogram with power-of-two buckets.
+// Recording is lock-free; percentiles are approximate, reported as the bucket's upper bound.
+public class Histogram implements Metric {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long value) {
+        long v = Math.max(0, value);
+        // Bucket i holds values in [2^(i-1), 2^i), bucket 0 holds zero
+        buckets[64 - Long.numberOfLeadingZeros(v)].increment();
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    // Upper bound of the bucket holding the given quantile (0.0 - 1.0)
+    public long getPercentile(double quantile) {
+        long total = count.sum();
+        if (total == 0)
+            return 0;
+        long target = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= target)
+                return Math.min(i == 0 ? 0 : (1L << i) - 1, getMax());
+        }
+        return getMax();
+    }
+
+    @Override
+    public void dump(String name, StringBuilder out) {
+        out.append(name).append(".count ").append(getCount()).append('\n');
+        out.append(name).append(".mean ").append((long) getMean()).append('\n');
+        out.append(name).append(".p50 ").append(getPercentile(0.50)).append('\n');
+        out.append(name).append(".p99 ").append(getPercentile(0.99)).append('\n');
+        out.append(name).append(".p999 ").append(getPercentile(0.999)).append('\n');
+        out.append(name).append(".max ").append(getMax()).append('\n');
+    }
+}
@@ -0,0 +1,11 @@
+package logging_system.metrics;
+
+import java.util.Map;
+
+// JMX view of a MetricsRegistry, registered under "logging_system:type=LoggingMetrics"
+public interface LoggingMetricsMXBean {
+    // Every metric flattened to name -> value, as in the text dump
+    Map<String, Long> getValues();
+
+    String getTextDump();
+}
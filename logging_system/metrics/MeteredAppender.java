@@ -0,0 +1,34 @@
+package logging_system.metrics;
+
+import logging_system.appender.LogAppender;
+import logging_system.message.LogMessage;
+
+// Records how long callers spend inside the wrapped appender's append()
+public class MeteredAppender implements LogAppender {
+    private final LogAppender delegate;
+    private final String metricPrefix;
+    // Time spent in the delegate; blocking on a full queue is measured by AsyncAppender
+    private final Histogram appendNanos;
+
+    public MeteredAppender(String name, LogAppender delegate) {
+        this.delegate = delegate;
+        this.metricPrefix = "appender." + name + ".";
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        this.appendNanos = metrics.histogram(metricPrefix + "appendNanos");
+    }
+
+    @Override
+    public void append(LogMessage logMessage) {
+        long start = System.nanoTime();
+        try {
+            delegate.append(logMessage);
+        } finally {
+            appendNanos.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
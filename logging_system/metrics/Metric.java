@@ -0,0 +1,7 @@
+package logging_system.metrics;
+
+// Anything the registry can report
+public interface Metric {
+    // One line per value, e.g. "name 42" or "name.p99 1234"
+    void dump(String name, StringBuilder out);
+}
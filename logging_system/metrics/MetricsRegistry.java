@@ -0,0 +1,94 @@
+package logging_system.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// In-process registry for the logger's own counters, gauges and histograms.
+// Components look their metrics up once and keep the reference, so recording
+// never touches the map.
+public class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+    private static final String OBJECT_NAME = "logging_system:type=LoggingMetrics";
+
+    private final ConcurrentHashMap<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public Counter counter(String name) {
+        return (Counter) metrics.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public Histogram histogram(String name) {
+        return (Histogram) metrics.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    // Replaces any gauge registered under the same name
+    public Gauge gauge(String name, LongSupplier supplier) {
+        Gauge gauge = new Gauge(supplier);
+        metrics.put(name, gauge);
+        return gauge;
+    }
+
+    public void remove(String name) {
+        metrics.remove(name);
+    }
+
+    // Drops every metric whose name starts with prefix, e.g. when an appender closes
+    public void removeAll(String prefix) {
+        metrics.keySet().removeIf(name -> name.startsWith(prefix));
+    }
+
+    public Metric get(String name) {
+        return metrics.get(name);
+    }
+
+    // One "name value" line per value, sorted by name
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Metric> entry : new TreeMap<>(metrics).entrySet()) {
+            entry.getValue().dump(entry.getKey(), out);
+        }
+        return out.toString();
+    }
+
+    public Map<String, Long> values() {
+        Map<String, Long> values = new TreeMap<>();
+        for (String line : dump().split("\n")) {
+            int space = line.lastIndexOf(' ');
+            if (space > 0)
+                values.put(line.substring(0, space), Long.parseLong(line.substring(space + 1)));
+        }
+        return values;
+    }
+
+    // Exposes this registry through the platform MBean server
+    public void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name))
+                server.unregisterMBean(name);
+            server.registerMBean(new LoggingMetricsMXBean() {
+                @Override
+                public Map<String, Long> getValues() {
+                    return values();
+                }
+
+                @Override
+                public String getTextDump() {
+                    return dump();
+                }
+            }, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register logging metrics MBean", e);
+        }
+    }
+}
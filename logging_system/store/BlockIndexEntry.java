@@ -0,0 +1,47 @@
+package logging_system.store;
+
+import java.nio.ByteBuffer;
+
+// One entry of a segment's sparse index: where a block of records starts and ends,
+// the time range it covers and which levels occur in it
+class BlockIndexEntry {
+    static final int SIZE = 8 + 4 + 8 + 8 + 4 + 1;
+
+    final long offset;
+    final int length;
+    final long minTimestamp;
+    final long maxTimestamp;
+    final int recordCount;
+    final byte levelMask;
+
+    BlockIndexEntry(long offset, int length, long minTimestamp, long maxTimestamp, int recordCount, byte levelMask) {
+        this.offset = offset;
+        this.length = length;
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+        this.recordCount = recordCount;
+        this.levelMask = levelMask;
+    }
+
+    boolean overlaps(long from, long to) {
+        return maxTimestamp >= from && minTimestamp <= to;
+    }
+
+    long endOffset() {
+        return offset + length;
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        buffer.putLong(offset);
+        buffer.putInt(length);
+        buffer.putLong(minTimestamp);
+        buffer.putLong(maxTimestamp);
+        buffer.putInt(recordCount);
+        buffer.put(levelMask);
+    }
+
+    static BlockIndexEntry readFrom(ByteBuffer buffer) {
+        return new BlockIndexEntry(buffer.getLong(), buffer.getInt(), buffer.getLong(), buffer.getLong(),
+                buffer.getInt(), buffer.get());
+    }
+}
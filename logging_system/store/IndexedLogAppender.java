@@ -0,0 +1,178 @@
+package logging_system.store;
+
+import logging_system.appender.LogAppender;
+import logging_system.message.LogMessage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Writes log segments together with a sparse block index so LogStore can answer
+// time-range and level queries without scanning whole files.
+// Every recordsPerBlock records the block's offset, time range and level bitmap
+// are appended to the segment's .idx file. Segments roll at maxSegmentBytes.
+public class IndexedLogAppender implements LogAppender {
+    private static final int DEFAULT_RECORDS_PER_BLOCK = 256;
+    private static final long DEFAULT_MAX_SEGMENT_BYTES = 256L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final int recordsPerBlock;
+    private final long maxSegmentBytes;
+    private final ByteBuffer dataBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer indexBuffer = ByteBuffer.allocate(BlockIndexEntry.SIZE);
+
+    private long segmentNumber;
+    private FileChannel dataChannel;
+    private FileChannel indexChannel;
+    private long segmentSize;
+
+    // Stats of the block being written
+    private long blockStart;
+    private int blockRecords;
+    private long blockMinTimestamp;
+    private long blockMaxTimestamp;
+    private byte blockLevelMask;
+    private boolean closed;
+
+    public IndexedLogAppender(String directory) {
+        this(directory, DEFAULT_RECORDS_PER_BLOCK, DEFAULT_MAX_SEGMENT_BYTES);
+    }
+
+    public IndexedLogAppender(String directory, int recordsPerBlock, long maxSegmentBytes) {
+        this.directory = Paths.get(directory);
+        this.recordsPerBlock = recordsPerBlock;
+        this.maxSegmentBytes = maxSegmentBytes;
+        try {
+            Files.createDirectories(this.directory);
+            // Start a new segment after any existing ones rather than appending to a possibly torn tail
+            this.segmentNumber = LogStore.listSegments(this.directory).stream()
+                    .mapToLong(Long::longValue).max().orElse(0);
+            openNextSegment();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open log store in " + directory, e);
+        }
+    }
+
+    @Override
+    public synchronized void append(LogMessage logMessage) {
+        if (closed)
+            return;
+        try {
+            byte[] text = logMessage.getMessage().getBytes(StandardCharsets.UTF_8);
+            int recordSize = LogSegmentFormat.RECORD_HEADER_SIZE + LogSegmentFormat.RECORD_FIXED_BODY_SIZE + text.length;
+            if (segmentSize > LogSegmentFormat.MAGIC_SIZE && segmentSize + recordSize > maxSegmentBytes) {
+                finishBlock();
+                closeSegment();
+                openNextSegment();
+            }
+            if (recordSize > dataBuffer.remaining())
+                flushData();
+
+            // The index keeps milliseconds, the unit queries use
+            long timestamp = logMessage.getTimestamp();
+            if (blockRecords == 0) {
+                blockStart = segmentSize;
+                blockMinTimestamp = timestamp;
+                blockMaxTimestamp = timestamp;
+            } else {
+                blockMinTimestamp = Math.min(blockMinTimestamp, timestamp);
+                blockMaxTimestamp = Math.max(blockMaxTimestamp, timestamp);
+            }
+            blockLevelMask |= LogSegmentFormat.levelBit(logMessage.getLevel());
+
+            if (recordSize > dataBuffer.capacity()) {
+                ByteBuffer large = ByteBuffer.allocate(recordSize);
+                putRecord(large, logMessage, text);
+                large.flip();
+                while (large.hasRemaining())
+                    dataChannel.write(large);
+            } else {
+                putRecord(dataBuffer, logMessage, text);
+            }
+            segmentSize += recordSize;
+
+            if (++blockRecords >= recordsPerBlock)
+                finishBlock();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void putRecord(ByteBuffer buffer, LogMessage logMessage, byte[] text) {
+        buffer.putInt(LogSegmentFormat.RECORD_FIXED_BODY_SIZE + text.length);
+        buffer.put((byte) logMessage.getLevel().getValue());
+        buffer.put((byte) logMessage.getPrecisionDigits());
+        buffer.putLong(logMessage.getTimestampNanos());
+        buffer.putLong(logMessage.getSequence());
+        buffer.put(text);
+    }
+
+    // Data goes to disk before the index entry that points at it
+    private void finishBlock() throws IOException {
+        if (blockRecords == 0)
+            return;
+        flushData();
+        BlockIndexEntry entry = new BlockIndexEntry(blockStart, (int) (segmentSize - blockStart),
+                blockMinTimestamp, blockMaxTimestamp, blockRecords, blockLevelMask);
+        indexBuffer.clear();
+        entry.writeTo(indexBuffer);
+        indexBuffer.flip();
+        while (indexBuffer.hasRemaining())
+            indexChannel.write(indexBuffer);
+        blockRecords = 0;
+        blockLevelMask = 0;
+    }
+
+    private void flushData() throws IOException {
+        dataBuffer.flip();
+        while (dataBuffer.hasRemaining())
+            dataChannel.write(dataBuffer);
+        dataBuffer.clear();
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        String name = LogSegmentFormat.segmentName(segmentNumber);
+        dataChannel = FileChannel.open(directory.resolve(name + LogSegmentFormat.DATA_SUFFIX),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(directory.resolve(name + LogSegmentFormat.INDEX_SUFFIX),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        // The data buffer was flushed before the previous segment closed
+        dataBuffer.putInt(LogSegmentFormat.MAGIC);
+        segmentSize = LogSegmentFormat.MAGIC_SIZE;
+    }
+
+    private void closeSegment() throws IOException {
+        dataChannel.close();
+        indexChannel.close();
+    }
+
+    // Writes out the current partial block so it is visible to queries
+    public synchronized void flush() {
+        if (closed)
+            return;
+        try {
+            finishBlock();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed)
+            return;
+        try {
+            finishBlock();
+            closeSegment();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        closed = true;
+    }
+}
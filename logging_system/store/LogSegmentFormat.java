@@ -0,0 +1,43 @@
+package logging_system.store;
+
+import logging_system.enums.LogLevel;
+
+// On-disk layout shared by IndexedLogAppender and LogStore.
+//
+// <n>.log  [int magic] then records of
+//          [int length][byte level][byte precisionDigits][long timestampNanos][long sequence][utf-8 message],
+//          length covering everything after it. Segments written before the timestamp
+//          carried nanoseconds have no magic and [byte level][long timestampMillis] instead;
+//          their first int is a record length, always far below MAGIC.
+// <n>.idx  fixed-size BlockIndexEntry records, one per block of records,
+//          appended only after the block's data has been written
+final class LogSegmentFormat {
+    static final String DATA_SUFFIX = ".log";
+    static final String INDEX_SUFFIX = ".idx";
+    static final int MAGIC = 0x4C475332; // "LGS2"
+    static final int MAGIC_SIZE = 4;
+    static final int RECORD_HEADER_SIZE = 4;
+    static final int RECORD_FIXED_BODY_SIZE = 1 + 1 + 8 + 8;
+    static final int LEGACY_FIXED_BODY_SIZE = 1 + 8;
+
+    private LogSegmentFormat() {
+    }
+
+    static String segmentName(long segmentNumber) {
+        return String.format("%010d", segmentNumber);
+    }
+
+    static byte levelBit(LogLevel level) {
+        return (byte) (1 << level.getValue());
+    }
+
+    // Bits for every level at or above minLevel
+    static byte levelMaskFrom(LogLevel minLevel) {
+        byte mask = 0;
+        for (LogLevel level : LogLevel.values()) {
+            if (level.isGreaterOrEqual(minLevel))
+                mask |= levelBit(level);
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,135 @@
+package logging_system.store;
+
+import logging_system.enums.LogLevel;
+import logging_system.message.LogMessage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Queries the segments written by IndexedLogAppender.
+// Segments whose blocks don't overlap the time range or lack the requested levels
+// are never read; the remaining blocks are read directly at their indexed offsets,
+// and segments are scanned in parallel.
+public class LogStore {
+    private final Path directory;
+
+    public LogStore(String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    // Messages with from <= timestamp <= to, level >= minLevel and text containing
+    // substring (null matches everything), ordered by timestamp and then by sequence, so
+    // messages logged within the same millisecond come back in the order they were logged
+    public List<LogMessage> query(long from, long to, LogLevel minLevel, String substring) throws IOException {
+        byte levelMask = LogSegmentFormat.levelMaskFrom(minLevel);
+        try {
+            return listSegments(directory).parallelStream()
+                    .flatMap(segment -> querySegment(segment, from, to, levelMask, substring).stream())
+                    .sorted(Comparator.comparingLong(LogMessage::getTimestampNanos)
+                            .thenComparingLong(LogMessage::getSequence))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private List<LogMessage> querySegment(long segmentNumber, long from, long to, byte levelMask, String substring) {
+        String name = LogSegmentFormat.segmentName(segmentNumber);
+        List<LogMessage> results = new ArrayList<>();
+        try (FileChannel data = FileChannel.open(directory.resolve(name + LogSegmentFormat.DATA_SUFFIX),
+                StandardOpenOption.READ)) {
+            boolean legacy = !hasMagic(data);
+            List<BlockIndexEntry> blocks = readIndex(directory.resolve(name + LogSegmentFormat.INDEX_SUFFIX));
+            long indexedEnd = legacy ? 0 : LogSegmentFormat.MAGIC_SIZE;
+            for (BlockIndexEntry block : blocks) {
+                indexedEnd = Math.max(indexedEnd, block.endOffset());
+                if (block.overlaps(from, to) && (block.levelMask & levelMask) != 0) {
+                    scan(data, block.offset, block.endOffset(), legacy, from, to, levelMask, substring, results);
+                }
+            }
+            // Records after the last indexed block belong to a block still being written
+            long size = data.size();
+            if (size > indexedEnd) {
+                scan(data, indexedEnd, size, legacy, from, to, levelMask, substring, results);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return results;
+    }
+
+    private static boolean hasMagic(FileChannel data) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(LogSegmentFormat.MAGIC_SIZE);
+        while (magic.hasRemaining()) {
+            if (data.read(magic, magic.position()) < 0)
+                return false;
+        }
+        return magic.getInt(0) == LogSegmentFormat.MAGIC;
+    }
+
+    private static void scan(FileChannel data, long start, long end, boolean legacy, long from, long to,
+            byte levelMask, String substring, List<LogMessage> results) throws IOException {
+        int fixedBodySize = legacy ? LogSegmentFormat.LEGACY_FIXED_BODY_SIZE : LogSegmentFormat.RECORD_FIXED_BODY_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (data.read(buffer, start + buffer.position()) < 0)
+                break;
+        }
+        buffer.flip();
+        while (buffer.remaining() >= LogSegmentFormat.RECORD_HEADER_SIZE) {
+            int length = buffer.getInt();
+            if (length < fixedBodySize || length > buffer.remaining())
+                return; // Partially written record at the tail
+            int next = buffer.position() + length;
+            LogLevel level = LogLevel.fromValue(buffer.get());
+            int precisionDigits = legacy ? 3 : buffer.get();
+            long timestampNanos = legacy ? buffer.getLong() * 1_000_000L : buffer.getLong();
+            long sequence = legacy ? 0 : buffer.getLong();
+            long timestamp = Math.floorDiv(timestampNanos, 1_000_000L);
+            // Decode the text only for records that pass the cheap checks
+            if (timestamp >= from && timestamp <= to && (LogSegmentFormat.levelBit(level) & levelMask) != 0) {
+                String message = StandardCharsets.UTF_8
+                        .decode(buffer.duplicate().limit(next)).toString();
+                if (substring == null || message.contains(substring)) {
+                    results.add(new LogMessage(level, message, timestampNanos, sequence, precisionDigits));
+                }
+            }
+            buffer.position(next);
+        }
+    }
+
+    private static List<BlockIndexEntry> readIndex(Path indexFile) throws IOException {
+        List<BlockIndexEntry> blocks = new ArrayList<>();
+        if (!Files.exists(indexFile))
+            return blocks;
+        ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        // A torn trailing entry is ignored, its records are picked up by the tail scan
+        while (index.remaining() >= BlockIndexEntry.SIZE) {
+            blocks.add(BlockIndexEntry.readFrom(index));
+        }
+        return blocks;
+    }
+
+    static List<Long> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory))
+            return new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(LogSegmentFormat.DATA_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - LogSegmentFormat.DATA_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package logging_system.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import logging_system.appender.FileAppender;
+import logging_system.appender.MappedFileAppender;
+import logging_system.enums.LogLevel;
+import logging_system.message.LogMessage;
+import logging_system.metrics.MetricsRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+class AppenderMetricsTest {
+
+    @Test
+    void sameFileNameInTwoDirectoriesKeepsSeparateMetrics() throws IOException {
+        Path first = Files.createTempDirectory("metrics").resolve("app.log");
+        Path second = Files.createTempDirectory("metrics").resolve("app.log");
+        FileAppender a = new FileAppender(first.toString());
+        FileAppender b = new FileAppender(second.toString());
+        a.append(new LogMessage(LogLevel.ERROR, "only in the first file"));
+
+        String firstName = "appender.file." + first.toAbsolutePath().normalize() + ".bytesWritten";
+        String secondName = "appender.file." + second.toAbsolutePath().normalize() + ".bytesWritten";
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        assertEquals(Long.valueOf(0), metrics.values().get(secondName));
+        a.close();
+        assertNull(metrics.get(firstName));
+        assertNotNull(metrics.get(secondName));
+        b.close();
+        assertNull(metrics.get(secondName));
+    }
+
+    @Test
+    void mappedAppenderRemovesItsMetricOnClose() throws IOException {
+        Path directory = Files.createTempDirectory("metrics").resolve("segments");
+        MappedFileAppender appender = new MappedFileAppender(directory.toString(), 64 * 1024);
+        String name = "appender.mapped." + directory.toAbsolutePath().normalize() + ".bytesWritten";
+        assertNotNull(MetricsRegistry.getDefault().get(name));
+        appender.close();
+        assertNull(MetricsRegistry.getDefault().get(name));
+    }
+}
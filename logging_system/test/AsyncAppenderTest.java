@@ -0,0 +1,69 @@
+package logging_system.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import logging_system.appender.AsyncAppender;
+import logging_system.appender.LogAppender;
+import logging_system.enums.LogLevel;
+import logging_system.logger.Logger;
+import logging_system.message.LogMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+class AsyncAppenderTest {
+
+    // Holds the consumer thread until the test opens the gate, then records what it sees
+    private static final class GatedSink implements LogAppender {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final List<String> messages = new CopyOnWriteArrayList<>();
+        final List<Object> firstArgs = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void append(LogMessage logMessage) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            messages.add(logMessage.getMessage());
+            firstArgs.add(logMessage.getArgs()[0]);
+        }
+    }
+
+    @Test
+    void argumentsMutatedAfterLogAreNotRendered() {
+        GatedSink sink = new GatedSink();
+        AsyncAppender async = new AsyncAppender(sink);
+        Logger logger = Logger.getInstance(LogLevel.INFO, async);
+
+        StringBuilder order = new StringBuilder("draft");
+        List<String> items = new ArrayList<>(List.of("a"));
+        logger.info("Order {} with {}", order, items);
+        order.setLength(0);
+        order.append("shipped");
+        items.add("b");
+
+        sink.gate.countDown();
+        async.close();
+
+        assertEquals(List.of("Order draft with [a]"), sink.messages);
+        // Typed encoders read the arguments too, so they must be the snapshot as well
+        assertEquals(List.of("draft"), sink.firstArgs);
+    }
+
+    @Test
+    void immutableArgumentsKeepTheirType() {
+        GatedSink sink = new GatedSink();
+        AsyncAppender async = new AsyncAppender(sink);
+        Object[] args = { 42L, "x" };
+        async.append(new LogMessage(LogLevel.INFO, "{} {}", args));
+        sink.gate.countDown();
+        async.close();
+
+        assertEquals(List.of("42 x"), sink.messages);
+        assertEquals(List.of(42L), sink.firstArgs);
+    }
+}
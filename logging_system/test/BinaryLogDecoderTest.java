@@ -0,0 +1,41 @@
+package logging_system.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import logging_system.encoding.BinaryLogDecoder;
+import logging_system.encoding.BinaryLogEncoder;
+import logging_system.enums.LogLevel;
+import logging_system.message.LogMessage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+class BinaryLogDecoderTest {
+
+    @Test
+    void roundTripsAnEvent() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new BinaryLogEncoder(bytes).encode(new LogMessage(LogLevel.INFO, "Paid {} in {}", new Object[] {42L, "EUR"}));
+
+        BinaryLogDecoder decoder = new BinaryLogDecoder(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals("Paid 42 in EUR", decoder.next().getMessage());
+        assertNull(decoder.next());
+    }
+
+    @Test
+    void hugeStringLengthIsRejectedBeforeAllocating() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // SESSION magic version, then a TEMPLATE whose text claims Integer.MAX_VALUE bytes
+        bytes.write(1);
+        bytes.writeBytes(new byte[] {0x42, 0x4C, 0x4F, 0x47, 3});
+        bytes.write(2);
+        bytes.write(1);
+        bytes.writeBytes(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+
+        BinaryLogDecoder decoder = new BinaryLogDecoder(new ByteArrayInputStream(bytes.toByteArray()));
+        assertThrows(IOException.class, decoder::next);
+    }
+}
@@ -0,0 +1,110 @@
+package logging_system.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import logging_system.appender.LogAppender;
+import logging_system.enums.LogLevel;
+import logging_system.filter.DuplicateSuppressionFilter;
+import logging_system.filter.RateLimitFilter;
+import logging_system.message.LogMessage;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+
+class FilterTest {
+
+    private static final class ListSink implements LogAppender {
+        final List<String> messages = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void append(LogMessage logMessage) {
+            messages.add(logMessage.getMessage());
+        }
+    }
+
+    private static LogMessage at(String text, long timestamp) {
+        return new LogMessage(LogLevel.INFO, text, timestamp);
+    }
+
+    @Test
+    void interleavedDuplicatesAreSuppressed() {
+        ListSink sink = new ListSink();
+        // A long window so the background sweep can't close it during the test
+        DuplicateSuppressionFilter filter = new DuplicateSuppressionFilter(60_000);
+        long t = System.currentTimeMillis();
+
+        assertTrue(filter.accept(at("A", t), sink));
+        assertTrue(filter.accept(at("B", t), sink));
+        assertFalse(filter.accept(at("A", t + 1), sink));
+        assertFalse(filter.accept(at("B", t + 1), sink));
+        assertFalse(filter.accept(at("A", t + 2), sink));
+
+        filter.close(sink);
+        assertEquals(List.of("Message repeated 2 times: A", "Message repeated 1 times: B"), sink.messages);
+    }
+
+    @Test
+    void summaryIsWrittenWhenTheWindowCloses() {
+        ListSink sink = new ListSink();
+        DuplicateSuppressionFilter filter = new DuplicateSuppressionFilter(60_000);
+        long t = System.currentTimeMillis();
+
+        assertTrue(filter.accept(at("A", t), sink));
+        assertFalse(filter.accept(at("A", t + 10), sink));
+        // Another message past the window closes A's window; A itself never recurs
+        assertTrue(filter.accept(at("B", t + 60_000), sink));
+
+        assertEquals(List.of("Message repeated 1 times: A"), sink.messages);
+        filter.close(sink);
+    }
+
+    @Test
+    void oldestWindowIsClosedWhenTrackingIsFull() {
+        ListSink sink = new ListSink();
+        DuplicateSuppressionFilter filter = new DuplicateSuppressionFilter(60_000, 2);
+        long t = System.currentTimeMillis();
+
+        filter.accept(at("A", t), sink);
+        filter.accept(at("A", t), sink);
+        filter.accept(at("B", t), sink);
+        filter.accept(at("C", t), sink);
+
+        assertEquals(List.of("Message repeated 1 times: A"), sink.messages);
+        // A's window is gone, so it is written again
+        assertTrue(filter.accept(at("A", t), sink));
+        filter.close(sink);
+    }
+
+    @Test
+    void rateLimitRejectsInvalidSettings() {
+        RateLimitFilter filter = new RateLimitFilter();
+        assertThrows(IllegalArgumentException.class, () -> filter.limit(LogLevel.ERROR, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> filter.limit(LogLevel.ERROR, Double.NaN, 10));
+        assertThrows(IllegalArgumentException.class, () -> filter.limit(LogLevel.ERROR, 10, 0));
+    }
+
+    @Test
+    void hugeBurstAtTinyRateDoesNotOverflow() {
+        ListSink sink = new ListSink();
+        RateLimitFilter filter = new RateLimitFilter().limit(LogLevel.INFO, 1e-12, Integer.MAX_VALUE);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.accept(at("A", 0), sink));
+        }
+    }
+
+    @Test
+    void burstIsEnforced() {
+        ListSink sink = new ListSink();
+        RateLimitFilter filter = new RateLimitFilter().limit(LogLevel.INFO, 0.001, 3);
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (filter.accept(at("A", 0), sink))
+                accepted++;
+        }
+        assertEquals(3, accepted);
+        assertEquals(7, filter.getRejectedCount(LogLevel.INFO));
+    }
+}
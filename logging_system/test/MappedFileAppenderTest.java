@@ -0,0 +1,47 @@
+package logging_system.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import logging_system.appender.MappedFileAppender;
+import logging_system.enums.LogLevel;
+import logging_system.message.LogMessage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class MappedFileAppenderTest {
+
+    @Test
+    void oversizedRecordIsDroppedWithoutRotating() throws IOException {
+        Path directory = Files.createTempDirectory("mapped");
+        MappedFileAppender appender = new MappedFileAppender(directory.toString(), 4096);
+        appender.append(new LogMessage(LogLevel.INFO, "before"));
+        appender.append(new LogMessage(LogLevel.INFO, "x".repeat(8192)));
+        appender.append(new LogMessage(LogLevel.INFO, "after"));
+        appender.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1L, files.count());
+        }
+        assertEquals(List.of("before", "after"), messages(directory));
+    }
+
+    @Test
+    void nullMessageIsWrittenAsNull() throws IOException {
+        Path directory = Files.createTempDirectory("mapped");
+        MappedFileAppender appender = new MappedFileAppender(directory.toString(), 4096);
+        appender.append(new LogMessage(LogLevel.INFO, (String) null));
+        appender.close();
+
+        assertEquals(List.of("null"), messages(directory));
+    }
+
+    private static List<String> messages(Path directory) throws IOException {
+        return MappedFileAppender.recover(directory.toString()).stream().map(LogMessage::getMessage)
+                .collect(Collectors.toList());
+    }
+}